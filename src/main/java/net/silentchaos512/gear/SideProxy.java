@@ -15,6 +15,7 @@ import net.minecraft.world.gen.placement.Placement;
 import net.minecraftforge.client.model.ModelLoaderRegistry;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.ModList;
@@ -81,6 +82,7 @@ class SideProxy implements IProxy {
 
         MinecraftForge.EVENT_BUS.addListener(ModCommands::registerAll);
         MinecraftForge.EVENT_BUS.addListener(SideProxy::onAddReloadListeners);
+        MinecraftForge.EVENT_BUS.addListener(SideProxy::onTagsUpdated);
         MinecraftForge.EVENT_BUS.addListener(SideProxy::serverStarted);
         MinecraftForge.EVENT_BUS.addListener(SideProxy::serverStopping);
 
@@ -107,6 +109,7 @@ class SideProxy implements IProxy {
 
         if (ModList.get().isLoaded(Const.CURIOS)) {
             CurioGearItemCapability.register();
+            MinecraftForge.EVENT_BUS.addListener(CuriosCompat::onCurioChange);
         }
     }
 
@@ -128,6 +131,12 @@ class SideProxy implements IProxy {
         }
     }
 
+    private static void onTagsUpdated(TagsUpdatedEvent event) {
+        // Crafting item indexes may contain tag ingredients
+        MaterialManager.invalidateIngredientIndex();
+        PartManager.invalidateIngredientIndex();
+    }
+
     private static void serverStarted(FMLServerStartedEvent event) {
         server = event.getServer();
         SilentGear.LOGGER.info(TraitManager.MARKER, "Traits loaded: {}", TraitManager.getValues().size());
@@ -10,6 +10,13 @@ import java.util.List;
 /**
  * Fired when collecting the stat modifiers for a gear part. This allows modifiers to be added or
  * removed.
+ * <p>
+ * Results are memoized per part, gear item and part crafting item (see {@link
+ * net.silentchaos512.gear.util.PartContributionCache}), so this only fires the first time a part's
+ * contribution is computed, not on every stat recalculation. Handlers must give the same result
+ * for the same inputs. A handler whose result depends on configs or other runtime state must call
+ * {@link net.silentchaos512.gear.util.PartContributionCache#invalidateAll()} when that state
+ * changes. Caches are also cleared whenever materials, parts or traits are reloaded.
  *
  * @author SilentChaos512
  * @since Experimental
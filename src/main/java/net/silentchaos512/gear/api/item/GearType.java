@@ -158,12 +158,14 @@ public final class GearType {
     }
 
     private final String name;
+    private final int ordinal;
     @Nullable private final GearType parent;
     private final int animationFrames;
     private final Supplier<ItemStat> durabilityStat;
 
     private GearType(String name, @Nullable GearType parent, int animationFrames, Supplier<ItemStat> durabilityStat) {
         this.name = name;
+        this.ordinal = VALUES.size();
         this.parent = parent;
         this.animationFrames = animationFrames;
         this.durabilityStat = durabilityStat;
@@ -173,6 +175,16 @@ public final class GearType {
         return name;
     }
 
+    /**
+     * Gets a dense index for this gear type, assigned in creation order. Useful for indexing
+     * arrays. Ordinals are not stable between game sessions, so they should never be saved.
+     *
+     * @return The ordinal
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
     /**
      * Gets the parent gear type, if there is one. The parent type may also have a parent.
      *
@@ -17,6 +17,7 @@ import net.silentchaos512.gear.gear.part.PartData;
 import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public interface IGearPart extends IGearComponent<IPartData> {
     ResourceLocation getId();
@@ -139,6 +140,19 @@ public interface IGearPart extends IGearComponent<IPartData> {
         return PartData.of(this);
     }
 
+    /**
+     * Same as {@link #randomizeData(GearType, int)}, but any random choices should be made with the
+     * given {@link Random}. Used when generating gear in batches.
+     *
+     * @param gearType The gear type
+     * @param tier     The target tier for random materials
+     * @param random   Random to use
+     * @return Part data instance
+     */
+    default PartData randomizeData(GearType gearType, int tier, Random random) {
+        return randomizeData(gearType, tier);
+    }
+
     boolean canAddToGear(ItemStack gear, PartData part);
 
     default boolean replacesExistingInPosition(PartData part) {
@@ -139,70 +139,49 @@ public class ItemStat extends ForgeRegistryEntry<ItemStat> implements IItemStat
         return compute(baseValue, clampValue, gearType, gearType, modifiers);
     }
 
-    @SuppressWarnings("OverlyComplexMethod")
     public float compute(float baseValue, boolean clampValue, GearType itemGearType, GearType statGearType, Collection<StatInstance> modifiers) {
         if (modifiers.isEmpty())
             return baseValue;
 
-        float f0 = baseValue;
-
-        // Average (weighted, used for mains)
-        f0 += getWeightedAverage(modifiers, Operation.AVG);
-
-        // Maximum
-        for (StatInstance mod : modifiers)
-            if (mod.getOp() == StatInstance.Operation.MAX)
-                f0 = Math.max(f0, mod.getValue());
-
-        // Multiplicative
-        float f1 = f0;
-        for (StatInstance mod : modifiers)
-            if (mod.getOp() == StatInstance.Operation.MUL1)
-                f1 += f0 * mod.getValue();
-
-        // Multiplicative2
-        for (StatInstance mod : modifiers)
-            if (mod.getOp() == StatInstance.Operation.MUL2)
-                f1 *= 1.0f + mod.getValue();
-
-        // Additive
-        for (StatInstance mod : modifiers)
-            if (mod.getOp() == StatInstance.Operation.ADD)
-                f1 += mod.getValue();
-
+        float f1 = ModifierBuckets.of(modifiers).evaluate(baseValue);
         return clampValue ? clampValue(f1) : f1;
     }
 
-    private static float getPrimaryMod(Iterable<StatInstance> modifiers, Operation op) {
+    private static float getPrimaryMod(float[] values, int count) {
         float primaryMod = -1f;
-        for (StatInstance mod : modifiers) {
-            if (mod.getOp() == op) {
-                if (primaryMod < 0f) {
-                    primaryMod = mod.getValue();
-                }
+        for (int i = 0; i < count; ++i) {
+            if (primaryMod < 0f) {
+                primaryMod = values[i];
             }
         }
         return primaryMod > 0 ? primaryMod : 1;
     }
 
     public static float getWeightedAverage(Collection<StatInstance> modifiers, Operation op) {
-        float primaryMod = getPrimaryMod(modifiers, op);
-        float ret = 0;
+        float[] values = new float[modifiers.size()];
         int count = 0;
-        float totalWeight = 0f;
         for (StatInstance mod : modifiers) {
             if (mod.getOp() == op) {
-                ++count;
-                float weight = getModifierWeight(mod, primaryMod, count);
-                totalWeight += weight;
-                ret += mod.getValue() * weight;
+                values[count++] = mod.getValue();
             }
         }
+        return getWeightedAverage(values, count);
+    }
+
+    static float getWeightedAverage(float[] values, int count) {
+        float primaryMod = getPrimaryMod(values, count);
+        float ret = 0;
+        float totalWeight = 0f;
+        for (int i = 0; i < count; ++i) {
+            float weight = getModifierWeight(values[i], primaryMod, i + 1);
+            totalWeight += weight;
+            ret += values[i] * weight;
+        }
         return count > 0 && totalWeight > 0 ? ret / totalWeight : ret;
     }
 
-    private static float getModifierWeight(StatInstance mod, float primaryMod, int count) {
-        float weightBase = WEIGHT_BASE_MIN + WEIGHT_DEVIATION_COEFF * (mod.getValue() - primaryMod) / primaryMod;
+    private static float getModifierWeight(float value, float primaryMod, int count) {
+        float weightBase = WEIGHT_BASE_MIN + WEIGHT_DEVIATION_COEFF * (value - primaryMod) / primaryMod;
         float weightBaseClamped = MathHelper.clamp(weightBase, WEIGHT_BASE_MIN, WEIGHT_BASE_MAX);
         return (float) Math.pow(weightBaseClamped, -(count == 0 ? count : 0.5 + 0.5f * count));
     }
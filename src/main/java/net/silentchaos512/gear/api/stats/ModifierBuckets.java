@@ -0,0 +1,115 @@
+package net.silentchaos512.gear.api.stats;
+
+import net.silentchaos512.gear.api.stats.StatInstance.Operation;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Modifier values grouped by operation. Values keep their original order within each operation,
+ * so evaluating gives exactly the same result as applying each operation to the full collection in
+ * turn.
+ * <p>
+ * {@link StatModifierMap} keeps buckets for each key, filled as modifiers are added, so computing a
+ * stat from the map's modifiers does not group them again. Other collections are grouped when the
+ * stat is computed.
+ */
+final class ModifierBuckets {
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final float[] EMPTY_VALUES = new float[0];
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private final float[][] values = new float[OPERATIONS.length][];
+    private final int[] counts = new int[OPERATIONS.length];
+    private final int initialCapacity;
+
+    ModifierBuckets() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private ModifierBuckets(int initialCapacity) {
+        this.initialCapacity = Math.max(initialCapacity, 1);
+    }
+
+    /**
+     * Gets the buckets of the modifiers, reusing the buckets kept by a {@link StatModifierMap} if
+     * the collection came from one.
+     *
+     * @param modifiers The modifiers
+     * @return The modifier buckets
+     */
+    static ModifierBuckets of(Collection<StatInstance> modifiers) {
+        if (modifiers instanceof Source) {
+            return ((Source) modifiers).getModifierBuckets();
+        }
+
+        ModifierBuckets buckets = new ModifierBuckets(modifiers.size());
+        for (StatInstance mod : modifiers) {
+            buckets.add(mod);
+        }
+        return buckets;
+    }
+
+    void add(StatInstance mod) {
+        int index = mod.getOp().ordinal();
+        float[] array = this.values[index];
+        int count = this.counts[index];
+
+        if (array == null) {
+            array = new float[this.initialCapacity];
+            this.values[index] = array;
+        } else if (count == array.length) {
+            array = Arrays.copyOf(array, count * 2);
+            this.values[index] = array;
+        }
+
+        array[count] = mod.getValue();
+        this.counts[index] = count + 1;
+    }
+
+    float evaluate(float baseValue) {
+        float f0 = baseValue;
+
+        // Average (weighted, used for mains)
+        f0 += ItemStat.getWeightedAverage(valuesOf(Operation.AVG), countOf(Operation.AVG));
+
+        // Maximum
+        float[] max = valuesOf(Operation.MAX);
+        for (int i = 0; i < countOf(Operation.MAX); ++i)
+            f0 = Math.max(f0, max[i]);
+
+        // Multiplicative
+        float f1 = f0;
+        float[] mul1 = valuesOf(Operation.MUL1);
+        for (int i = 0; i < countOf(Operation.MUL1); ++i)
+            f1 += f0 * mul1[i];
+
+        // Multiplicative2
+        float[] mul2 = valuesOf(Operation.MUL2);
+        for (int i = 0; i < countOf(Operation.MUL2); ++i)
+            f1 *= 1.0f + mul2[i];
+
+        // Additive
+        float[] add = valuesOf(Operation.ADD);
+        for (int i = 0; i < countOf(Operation.ADD); ++i)
+            f1 += add[i];
+
+        return f1;
+    }
+
+    private float[] valuesOf(Operation op) {
+        float[] ret = this.values[op.ordinal()];
+        return ret != null ? ret : EMPTY_VALUES;
+    }
+
+    private int countOf(Operation op) {
+        return this.counts[op.ordinal()];
+    }
+
+    /**
+     * A modifier collection which keeps its own buckets.
+     */
+    interface Source {
+        ModifierBuckets getModifierBuckets();
+    }
+}
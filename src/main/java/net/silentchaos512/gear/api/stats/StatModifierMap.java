@@ -1,7 +1,9 @@
 package net.silentchaos512.gear.api.stats;
 
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Multiset;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -19,9 +21,66 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.Map.Entry;
-
+import java.util.function.BiConsumer;
+
+/**
+ * Stat modifiers keyed by stat and gear type. Modifiers are stored in a table indexed by {@link
+ * StatGearKey#getStatOrdinal() stat ordinal} and {@link GearType#getOrdinal() gear type ordinal},
+ * so lookups (including falling back to parent gear types) are just array reads.
+ * <p>
+ * The {@link Multimap} methods are kept for compatibility. Collections returned by {@link
+ * #get(StatGearKey)} write through to the map, but the other collection views are read-only. Keys
+ * are iterated in insertion order.
+ */
 public class StatModifierMap implements Multimap<StatGearKey, StatInstance> {
-    private final Multimap<StatGearKey, StatInstance> map = MultimapBuilder.linkedHashKeys().arrayListValues().build();
+    private static final Cell[] EMPTY_ROW = new Cell[0];
+
+    // Indexed by stat ordinal, then gear type ordinal. Rows are created and grown as needed.
+    private Cell[][] table = new Cell[0][];
+    private final List<Cell> cells = new ArrayList<>();
+    private final Set<ItemStat> stats = new LinkedHashSet<>();
+    private int size = 0;
+
+    private final Set<ItemStat> statsView = Collections.unmodifiableSet(this.stats);
+    private final Set<StatGearKey> keySetView = new AbstractSet<StatGearKey>() {
+        @Override
+        public Iterator<StatGearKey> iterator() {
+            return Iterators.unmodifiableIterator(Iterators.transform(cells.iterator(), cell -> cell.key));
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public int size() {
+            return cells.size();
+        }
+    };
+    private final Collection<StatInstance> valuesView = new AbstractCollection<StatInstance>() {
+        @Override
+        public Iterator<StatInstance> iterator() {
+            return Iterators.unmodifiableIterator(Iterators.concat(Iterators.transform(cells.iterator(), cell -> cell.values.iterator())));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+    private final Collection<Entry<StatGearKey, StatInstance>> entriesView = new AbstractCollection<Entry<StatGearKey, StatInstance>>() {
+        @Override
+        public Iterator<Entry<StatGearKey, StatInstance>> iterator() {
+            return Iterators.unmodifiableIterator(Iterators.concat(Iterators.transform(cells.iterator(), cell ->
+                    Iterators.transform(cell.values.iterator(), value -> Maps.immutableEntry(cell.key, value)))));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
 
     public static IFormattableTextComponent formatText(Collection<StatInstance> mods, ItemStat stat, int maxDecimalPlaces) {
         return formatText(mods, stat, maxDecimalPlaces, false);
@@ -49,39 +108,112 @@ public class StatModifierMap implements Multimap<StatGearKey, StatInstance> {
         return result;
     }
 
+    /**
+     * Gets all stats which have at least one modifier, in insertion order.
+     *
+     * @return Unmodifiable view of the stats
+     */
     public Set<ItemStat> getStats() {
-        Set<ItemStat> set = new HashSet<>();
-        for (StatGearKey key : this.keySet()) {
+        return this.statsView;
+    }
+
+    @Nullable
+    private Cell findCell(@Nullable Object key) {
+        if (!(key instanceof StatGearKey)) {
+            return null;
+        }
+
+        StatGearKey statKey = (StatGearKey) key;
+        Cell[] row = getRow(statKey);
+        int typeIndex = statKey.getGearType().getOrdinal();
+        return typeIndex < row.length ? row[typeIndex] : null;
+    }
+
+    @Nullable
+    private Cell findMostSpecificCell(StatGearKey key) {
+        Cell[] row = getRow(key);
+        for (GearType type = key.getGearType(); type != null; type = type.getParent()) {
+            int typeIndex = type.getOrdinal();
+            if (typeIndex < row.length && row[typeIndex] != null) {
+                return row[typeIndex];
+            }
+        }
+        return null;
+    }
+
+    private Cell[] getRow(StatGearKey key) {
+        int statIndex = key.getStatOrdinal();
+        if (statIndex < this.table.length && this.table[statIndex] != null) {
+            return this.table[statIndex];
+        }
+        return EMPTY_ROW;
+    }
+
+    private Cell getOrCreateCell(StatGearKey key) {
+        int statIndex = key.getStatOrdinal();
+        int typeIndex = key.getGearType().getOrdinal();
+
+        if (statIndex >= this.table.length) {
+            this.table = Arrays.copyOf(this.table, statIndex + 1);
+        }
+        Cell[] row = this.table[statIndex];
+        if (row == null || typeIndex >= row.length) {
+            row = row == null ? new Cell[typeIndex + 1] : Arrays.copyOf(row, typeIndex + 1);
+            this.table[statIndex] = row;
+        }
+
+        Cell cell = row[typeIndex];
+        if (cell == null) {
+            cell = new Cell(key);
+            row[typeIndex] = cell;
+            this.cells.add(cell);
             if (key.getStat() instanceof ItemStat) {
-                set.add((ItemStat) key.getStat());
+                this.stats.add((ItemStat) key.getStat());
             }
         }
-        return set;
+        return cell;
+    }
+
+    private void removeCell(Cell cell) {
+        Cell[] row = this.table[cell.key.getStatOrdinal()];
+        row[cell.key.getGearType().getOrdinal()] = null;
+        this.cells.remove(cell);
+        this.size -= cell.values.size();
+
+        if (Arrays.stream(row).allMatch(Objects::isNull)) {
+            this.stats.remove(cell.key.getStat());
+        }
     }
 
     @Override
     public int size() {
-        return this.map.size();
+        return this.size;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return this.size == 0;
     }
 
     @Override
     public boolean containsKey(@Nullable Object key) {
-        return this.map.containsKey(key);
+        return findCell(key) != null;
     }
 
     @Override
     public boolean containsValue(@Nullable Object value) {
-        return this.map.containsValue(value);
+        for (Cell cell : this.cells) {
+            if (cell.values.contains(value)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public boolean containsEntry(@Nullable Object key, @Nullable Object value) {
-        return this.map.containsEntry(key, value);
+        Cell cell = findCell(key);
+        return cell != null && cell.values.contains(value);
     }
 
     public boolean put(IItemStat stat, GearType gearType, StatInstance value) {
@@ -90,106 +222,151 @@ public class StatModifierMap implements Multimap<StatGearKey, StatInstance> {
 
     @Override
     public boolean put(@Nullable StatGearKey key, @Nullable StatInstance value) {
-        return this.map.put(key, value);
+        getOrCreateCell(Objects.requireNonNull(key)).append(value);
+        ++this.size;
+        return true;
     }
 
     @Override
     public boolean remove(@Nullable Object key, @Nullable Object value) {
-        return this.map.remove(key, value);
+        Cell cell = findCell(key);
+        if (cell != null && cell.values.remove(value)) {
+            cell.buckets = null;
+            --this.size;
+            if (cell.values.isEmpty()) {
+                removeCell(cell);
+            }
+            return true;
+        }
+        return false;
     }
 
     @Override
     public boolean putAll(@Nullable StatGearKey key, @Nonnull Iterable<? extends StatInstance> values) {
-        return this.map.putAll(key, values);
+        boolean changed = false;
+        for (StatInstance value : values) {
+            changed |= put(key, value);
+        }
+        return changed;
     }
 
     @Override
     public boolean putAll(@Nonnull Multimap<? extends StatGearKey, ? extends StatInstance> multimap) {
-        return this.map.putAll(multimap);
+        boolean changed = false;
+        for (Entry<? extends StatGearKey, ? extends StatInstance> entry : multimap.entries()) {
+            changed |= put(entry.getKey(), entry.getValue());
+        }
+        return changed;
     }
 
     @Override
     public Collection<StatInstance> replaceValues(@Nullable StatGearKey key, @Nonnull Iterable<? extends StatInstance> values) {
-        return this.map.replaceValues(key, values);
+        Collection<StatInstance> oldValues = removeAll(key);
+        putAll(key, values);
+        return oldValues;
     }
 
     @Override
     public Collection<StatInstance> removeAll(@Nullable Object key) {
-        return this.map.removeAll(key);
+        Cell cell = findCell(key);
+        if (cell == null) {
+            return Collections.emptyList();
+        }
+
+        List<StatInstance> oldValues = new ArrayList<>(cell.values);
+        removeCell(cell);
+        return oldValues;
     }
 
     @Override
     public void clear() {
-        this.map.clear();
+        this.table = new Cell[0][];
+        this.cells.clear();
+        this.stats.clear();
+        this.size = 0;
     }
 
     public Collection<StatInstance> get(IItemStat stat, GearType gearType) {
         return get(StatGearKey.of(stat, gearType));
     }
 
+    /**
+     * Gets the modifiers for the key. If the key has no modifiers, the key's parents (based on
+     * gear type) are checked, from most to least specific.
+     *
+     * @param key The stat and gear type
+     * @return Live view of the modifiers of the most specific key that has any. If there are none,
+     * a view of the key itself, which adds the key when a modifier is added to it.
+     */
     @Override
     public Collection<StatInstance> get(@Nullable StatGearKey key) {
-        if (key == null || this.map.containsKey(key)) {
-            return this.map.get(key);
-        }
-
-        StatGearKey parent = key.getParent();
-        while (parent != null) {
-            if (this.map.containsKey(parent)) {
-                return this.map.get(parent);
-            }
-            parent = parent.getParent();
+        if (key == null) {
+            return Collections.emptyList();
         }
 
-        return Collections.emptyList();
+        Cell cell = findMostSpecificCell(key);
+        return cell != null ? cell.view : new KeyView(key);
     }
 
     public StatGearKey getMostSpecificKey(StatGearKey key) {
-        if (this.map.containsKey(key)) {
-            return key;
-        }
-
-        StatGearKey parent = key.getParent();
-        while (parent != null) {
-            if (this.map.containsKey(parent)) {
-                return parent;
-            }
-            parent = parent.getParent();
-        }
-
-        return StatGearKey.of(key.getStat(), GearType.ALL);
+        Cell cell = findMostSpecificCell(key);
+        return cell != null ? cell.key : StatGearKey.of(key.getStat(), GearType.ALL);
     }
 
     @Override
     public Set<StatGearKey> keySet() {
-        return this.map.keySet();
+        return this.keySetView;
     }
 
     @Override
     public Multiset<StatGearKey> keys() {
-        return this.map.keys();
+        ImmutableMultiset.Builder<StatGearKey> builder = ImmutableMultiset.builder();
+        for (Cell cell : this.cells) {
+            builder.addCopies(cell.key, cell.values.size());
+        }
+        return builder.build();
     }
 
     @Override
     public Collection<StatInstance> values() {
-        return this.map.values();
+        return this.valuesView;
     }
 
     @Override
     public Collection<Entry<StatGearKey, StatInstance>> entries() {
-        return this.map.entries();
+        return this.entriesView;
     }
 
+    /**
+     * Gets a read-only copy of the map. Unlike the other views, this does not reflect later
+     * changes.
+     *
+     * @return Unmodifiable map of keys to modifiers
+     */
     @Override
     public Map<StatGearKey, Collection<StatInstance>> asMap() {
-        return this.map.asMap();
+        Map<StatGearKey, Collection<StatInstance>> map = new LinkedHashMap<>();
+        for (Cell cell : this.cells) {
+            map.put(cell.key, cell.view);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super StatGearKey, ? super StatInstance> action) {
+        for (Cell cell : this.cells) {
+            for (StatInstance value : cell.values) {
+                action.accept(cell.key, value);
+            }
+        }
     }
 
     public JsonObject serialize() {
         JsonObject json = new JsonObject();
 
-        for (StatGearKey key : this.keySet()) {
-            Collection<StatInstance> mods = this.get(key);
+        for (Cell cell : this.cells) {
+            StatGearKey key = cell.key;
+            Collection<StatInstance> mods = cell.values;
 
             if (mods.size() > 1) {
                 JsonArray array = new JsonArray();
@@ -259,4 +436,105 @@ public class StatModifierMap implements Multimap<StatGearKey, StatInstance> {
             instance.write(buffer);
         });
     }
+
+    private final class Cell {
+        private final StatGearKey key;
+        private final List<StatInstance> values = new ArrayList<>();
+        private final List<StatInstance> view;
+        // Kept up to date while modifiers are appended, rebuilt after any other change
+        @Nullable private ModifierBuckets buckets = new ModifierBuckets();
+
+        private Cell(StatGearKey key) {
+            this.key = key;
+            this.view = new KeyView(key);
+        }
+
+        private void append(StatInstance value) {
+            this.values.add(value);
+            if (this.buckets != null) {
+                this.buckets.add(value);
+            }
+        }
+
+        private ModifierBuckets getBuckets() {
+            if (this.buckets == null) {
+                ModifierBuckets rebuilt = new ModifierBuckets();
+                this.values.forEach(rebuilt::add);
+                this.buckets = rebuilt;
+            }
+            return this.buckets;
+        }
+    }
+
+    /**
+     * Modifiers of a single key, like the collections returned by Guava's multimaps. Changes write
+     * through to the map. The key is added on the first add and removed once it has no modifiers,
+     * and the view stays valid either way.
+     */
+    private final class KeyView extends AbstractList<StatInstance> implements RandomAccess, ModifierBuckets.Source {
+        private final StatGearKey key;
+
+        private KeyView(StatGearKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public StatInstance get(int index) {
+            return getCellOrThrow(index).values.get(index);
+        }
+
+        @Override
+        public int size() {
+            Cell cell = findCell(this.key);
+            return cell != null ? cell.values.size() : 0;
+        }
+
+        @Override
+        public void add(int index, StatInstance element) {
+            Cell cell = getOrCreateCell(this.key);
+            if (index == cell.values.size()) {
+                cell.append(element);
+            } else {
+                cell.values.add(index, element);
+                cell.buckets = null;
+            }
+            ++StatModifierMap.this.size;
+            ++this.modCount;
+        }
+
+        @Override
+        public StatInstance set(int index, StatInstance element) {
+            Cell cell = getCellOrThrow(index);
+            StatInstance old = cell.values.set(index, element);
+            cell.buckets = null;
+            return old;
+        }
+
+        @Override
+        public StatInstance remove(int index) {
+            Cell cell = getCellOrThrow(index);
+            StatInstance old = cell.values.remove(index);
+            cell.buckets = null;
+            --StatModifierMap.this.size;
+            ++this.modCount;
+            if (cell.values.isEmpty()) {
+                removeCell(cell);
+            }
+            return old;
+        }
+
+        @Override
+        public ModifierBuckets getModifierBuckets() {
+            Cell cell = findCell(this.key);
+            return cell != null ? cell.getBuckets() : new ModifierBuckets();
+        }
+
+        private Cell getCellOrThrow(int index) {
+            Cell cell = findCell(this.key);
+            if (cell == null) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+            }
+            return cell;
+        }
+    }
 }
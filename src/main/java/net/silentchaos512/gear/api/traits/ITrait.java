@@ -143,6 +143,17 @@ public interface ITrait {
 
     void onUpdate(TraitActionContext context, boolean isEquipped);
 
+    /**
+     * How often {@link #onUpdate(TraitActionContext, boolean)} should be called for gear in a
+     * player's inventory, in ticks. Traits which do nothing on update should return zero, so they
+     * are not scheduled at all.
+     *
+     * @return The number of ticks between updates, or zero (or less) to never update
+     */
+    default int getUpdateInterval() {
+        return 1;
+    }
+
     ItemStack addLootDrops(TraitActionContext context, ItemStack stack);
 
     default CompoundNBT write(int level) {
@@ -1,8 +1,8 @@
 package net.silentchaos512.gear.api.util;
 
 import com.google.gson.JsonParseException;
-import com.mojang.datafixers.util.Pair;
 import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.item.GearType;
 import net.silentchaos512.gear.api.stats.IItemStat;
@@ -10,16 +10,29 @@ import net.silentchaos512.gear.api.stats.ItemStat;
 import net.silentchaos512.gear.api.stats.ItemStats;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A stat paired with a gear type. Keys are interned, so there is only one instance for each stat
+ * and gear type, and keys with the same name share an {@link #getId() ID}. Each key also knows its
+ * ancestors (the same stat with the parent gear types), so walking up the gear type hierarchy does
+ * not need any lookups. Keys may be requested from any thread.
+ */
 public final class StatGearKey {
-    private static final Map<Pair<IItemStat, GearType>, StatGearKey> CACHE = new HashMap<>();
+    private static final Object LOCK = new Object();
+    // Keys for each stat, indexed by gear type ordinal. Arrays are copied on write, under LOCK.
+    private static final Map<IItemStat, StatGearKey[]> CACHE = new ConcurrentHashMap<>();
+    // Only accessed under LOCK
+    private static final Map<String, Integer> IDS = new HashMap<>();
+    private static final Map<ResourceLocation, Integer> STAT_ORDINALS = new HashMap<>();
 
     private final String key;
     private final IItemStat stat;
     private final GearType gearType;
+    private final int id;
+    private final int statOrdinal;
+    private final List<StatGearKey> ancestors;
 
     private StatGearKey(IItemStat stat, GearType gearType) {
         this.stat = stat;
@@ -30,20 +43,70 @@ public final class StatGearKey {
         } else {
             this.key = SilentGear.shortenId(stat.getStatId());
         }
+
+        this.id = IDS.computeIfAbsent(this.key, k -> IDS.size());
+        this.statOrdinal = STAT_ORDINALS.computeIfAbsent(stat.getStatId(), k -> STAT_ORDINALS.size());
+
+        GearType parentType = gearType.getParent();
+        if (parentType != null) {
+            StatGearKey parent = of(stat, parentType);
+            StatGearKey[] array = new StatGearKey[parent.ancestors.size() + 1];
+            array[0] = parent;
+            for (int i = 1; i < array.length; ++i) {
+                array[i] = parent.ancestors.get(i - 1);
+            }
+            this.ancestors = Collections.unmodifiableList(Arrays.asList(array));
+        } else {
+            this.ancestors = Collections.emptyList();
+        }
     }
 
     public static StatGearKey of(IItemStat stat, GearType gearType) {
-        return CACHE.computeIfAbsent(Pair.of(stat, gearType), pair ->
-                new StatGearKey(pair.getFirst(), pair.getSecond()));
+        int index = gearType.getOrdinal();
+        StatGearKey[] keys = CACHE.get(stat);
+        if (keys != null && index < keys.length && keys[index] != null) {
+            return keys[index];
+        }
+
+        synchronized (LOCK) {
+            keys = CACHE.get(stat);
+            if (keys != null && index < keys.length && keys[index] != null) {
+                return keys[index];
+            }
+
+            // Parent keys are created (and cached) by the constructor, so read the array after
+            StatGearKey key = new StatGearKey(stat, gearType);
+            keys = CACHE.get(stat);
+            keys = keys == null ? new StatGearKey[index + 1] : Arrays.copyOf(keys, Math.max(keys.length, index + 1));
+            keys[index] = key;
+            CACHE.put(stat, keys);
+            return key;
+        }
     }
 
     @Nullable
     public StatGearKey getParent() {
-        GearType parent = this.gearType.getParent();
-        if (parent != null) {
-            return of(this.stat, parent);
-        }
-        return null;
+        return this.ancestors.isEmpty() ? null : this.ancestors.get(0);
+    }
+
+    /**
+     * Gets the keys for the same stat with each parent gear type, from the most specific to the
+     * least specific. Does not include this key.
+     *
+     * @return Unmodifiable list of ancestor keys
+     */
+    public List<StatGearKey> getAncestors() {
+        return ancestors;
+    }
+
+    /**
+     * Gets a dense index for this key. Keys with the same name (stat ID and gear type) have the
+     * same ID. Not stable between game sessions.
+     *
+     * @return The key ID
+     */
+    public int getId() {
+        return id;
     }
 
     public IItemStat getStat() {
@@ -54,6 +117,16 @@ public final class StatGearKey {
         return gearType;
     }
 
+    /**
+     * Gets a dense index for the stat, shared by all keys with the same stat ID. Used with {@link
+     * GearType#getOrdinal()} to index stat arrays. Not stable between game sessions.
+     *
+     * @return The stat ordinal
+     */
+    public int getStatOrdinal() {
+        return statOrdinal;
+    }
+
     @Nullable
     public static StatGearKey read(String key) {
         String[] parts = key.split("/");
@@ -76,7 +149,7 @@ public final class StatGearKey {
             gearType = GearType.ALL;
         }
 
-        return new StatGearKey(stat, gearType);
+        return of(stat, gearType);
     }
 
     @Nullable
@@ -98,11 +171,11 @@ public final class StatGearKey {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         StatGearKey that = (StatGearKey) o;
-        return Objects.equals(key, that.key);
+        return id == that.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(key);
+        return id;
     }
 }
@@ -1,47 +1,83 @@
 package net.silentchaos512.gear.client.event;
 
-import com.mojang.blaze3d.platform.GlStateManager;
-import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.matrix.MatrixStack;
+import com.mojang.blaze3d.vertex.IVertexBuilder;
+import com.mojang.blaze3d.vertex.MatrixApplyingVertexBuilder;
+import net.minecraft.block.BlockState;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.renderer.BufferBuilder;
-import net.minecraft.client.renderer.Tessellator;
-import net.minecraft.entity.Entity;
-import net.minecraft.resources.IResourceManager;
+import net.minecraft.client.renderer.BlockRendererDispatcher;
+import net.minecraft.client.renderer.IRenderTypeBuffer;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.model.ModelBakery;
+import net.minecraft.client.world.ClientWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.vector.Vector3d;
 import net.minecraftforge.client.event.RenderWorldLastEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
-import net.minecraftforge.resource.IResourceType;
-import net.minecraftforge.resource.ISelectiveResourceReloadListener;
+import net.silentchaos512.gear.network.MessageExtraBlockBreak;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.function.Predicate;
 
-public final class ExtraBlockBreakHandler implements ISelectiveResourceReloadListener {
+/**
+ * Draws break progress on the extra blocks AOE tools are about to break, as reported by {@link
+ * MessageExtraBlockBreak}. All tracked blocks are drawn in one pass through the crumbling buffer.
+ * Blocks far from the camera are skipped, and progress which was never cleared (the breaker left
+ * tracking range, for example) is removed after a while.
+ */
+public final class ExtraBlockBreakHandler {
     public static final ExtraBlockBreakHandler INSTANCE = new ExtraBlockBreakHandler(Minecraft.getInstance());
 
+    // Same as vanilla's block damage rendering
+    private static final double MAX_RENDER_DISTANCE_SQ = 32 * 32;
+    private static final int CLEANUP_INTERVAL = 20;
+    private static final int MAX_AGE = 400;
+
+    // Render thread only
     private final Map<Integer, DestroyExtraBlocksProgress> extraDamagedBlocks = new HashMap<>();
-    private Minecraft mc;
-//    private final TextureManager renderEngine;
-//    private final TextureAtlasSprite[] destroyBlockIcons = new TextureAtlasSprite[10];
+    private final Minecraft mc;
 
     private ExtraBlockBreakHandler(Minecraft mcIn) {
         this.mc = mcIn;
-//        this.renderEngine = mcIn.getTextureManager();
-//        ((IReloadableResourceManager) mc.getResourceManager()).addReloadListener(this);
     }
 
     @SubscribeEvent
     public void renderBlockBreakAnim(RenderWorldLastEvent event) {
-/*        RenderSystem.enableBlend();
-        RenderSystem.blendFuncSeparate(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE, GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ZERO);
-        this.mc.getTextureManager().getTexture(AtlasTexture.LOCATION_BLOCKS_TEXTURE).setBlurMipmap(false, false);
-        this.drawBlockDamageTexture(Tessellator.getInstance(), Tessellator.getInstance().getBuffer(), this.mc.getRenderViewEntity(), event.getPartialTicks());
-        this.mc.getTextureManager().getTexture(AtlasTexture.LOCATION_BLOCKS_TEXTURE).restoreLastBlurMipmap();
-        RenderSystem.blendFuncSeparate(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA, GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ZERO);
-        RenderSystem.disableBlend();*/
+        ClientWorld world = this.mc.world;
+        if (world == null || this.extraDamagedBlocks.isEmpty()) return;
+
+        if (world.getGameTime() % CLEANUP_INTERVAL == 0) {
+            this.cleanupExtraDamagedBlocks(world);
+        }
+
+        Vector3d view = this.mc.gameRenderer.getActiveRenderInfo().getProjectedView();
+        MatrixStack matrixStack = event.getMatrixStack();
+        IRenderTypeBuffer.Impl buffers = this.mc.getRenderTypeBuffers().getCrumblingBufferSource();
+        BlockRendererDispatcher dispatcher = this.mc.getBlockRendererDispatcher();
+
+        for (DestroyExtraBlocksProgress progress : this.extraDamagedBlocks.values()) {
+            RenderType renderType = ModelBakery.DESTROY_RENDER_TYPES.get(progress.getPartialBlockDamage());
+
+            for (BlockPos pos : progress.getPositions()) {
+                double x = pos.getX() - view.x;
+                double y = pos.getY() - view.y;
+                double z = pos.getZ() - view.z;
+                if (x * x + y * y + z * z > MAX_RENDER_DISTANCE_SQ) continue;
+
+                BlockState state = world.getBlockState(pos);
+                if (state.isAir(world, pos)) continue;
+
+                matrixStack.push();
+                matrixStack.translate(x, y, z);
+                MatrixStack.Entry entry = matrixStack.getLast();
+                IVertexBuilder builder = new MatrixApplyingVertexBuilder(buffers.getBuffer(renderType), entry.getMatrix(), entry.getNormal());
+                dispatcher.renderBlockDamage(state, pos, world, matrixStack, builder);
+                matrixStack.pop();
+            }
+        }
+
+        buffers.finish();
     }
 
     @SubscribeEvent
@@ -54,126 +90,36 @@ public final class ExtraBlockBreakHandler implements ISelectiveResourceReloadLis
         this.extraDamagedBlocks.clear();
     }
 
-    private static void preRenderDamagedBlocks() {
-        RenderSystem.blendFuncSeparate(GlStateManager.SourceFactor.DST_COLOR, GlStateManager.DestFactor.SRC_COLOR, GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ZERO);
-        RenderSystem.enableBlend();
-        RenderSystem.color4f(1.0F, 1.0F, 1.0F, 0.5F);
-        RenderSystem.polygonOffset(-3.0F, -3.0F);
-        RenderSystem.enablePolygonOffset();
-        RenderSystem.alphaFunc(516, 0.1F);
-        RenderSystem.enableAlphaTest();
-        RenderSystem.pushMatrix();
-    }
-
-    private static void postRenderDamagedBlocks() {
-        RenderSystem.disableAlphaTest();
-        RenderSystem.polygonOffset(0.0F, 0.0F);
-        RenderSystem.disablePolygonOffset();
-        RenderSystem.enableAlphaTest();
-        RenderSystem.depthMask(true);
-        RenderSystem.popMatrix();
-    }
-
-    private void drawBlockDamageTexture(Tessellator tessellatorIn, BufferBuilder bufferBuilderIn, Entity entityIn, float partialTicks) {
-/*        double d3 = entityIn.lastTickPosX + (entityIn.func_226277_ct_() - entityIn.lastTickPosX) * (double) partialTicks;
-        double d4 = entityIn.lastTickPosY + (entityIn.func_226278_cu_() - entityIn.lastTickPosY) * (double) partialTicks;
-        double d5 = entityIn.lastTickPosZ + (entityIn.func_226281_cx_() - entityIn.lastTickPosZ) * (double) partialTicks;
-
-        if (this.mc.world.getGameTime() % 20 == 0) {
-            this.cleanupExtraDamagedBlocks();
-        }
-
-        if (!this.extraDamagedBlocks.isEmpty()) {
-            this.renderEngine.bindTexture(AtlasTexture.LOCATION_BLOCKS_TEXTURE);
-            ExtraBlockBreakHandler.preRenderDamagedBlocks();
-            bufferBuilderIn.begin(7, DefaultVertexFormats.BLOCK);
-            bufferBuilderIn.setTranslation(-d3, -d4, -d5);
-            bufferBuilderIn.noColor();
-
-            for (Entry<Integer, DestroyExtraBlocksProgress> entry : this.extraDamagedBlocks.entrySet()) {
-                DestroyExtraBlocksProgress destroyblockprogress = entry.getValue();
-                BlockPos[] blockpositions = destroyblockprogress.getPositions();
-                for (int i = 0; i < blockpositions.length; i++) {
-                    BlockPos blockpos = blockpositions[i];
-                    double d6 = (double) blockpos.getX() - d3;
-                    double d7 = (double) blockpos.getY() - d4;
-                    double d8 = (double) blockpos.getZ() - d5;
-                    Block block = this.mc.world.getBlockState(blockpos).getBlock();
-                    TileEntity te = this.mc.world.getTileEntity(blockpos);
-                    boolean hasBreak = block instanceof ChestBlock || block instanceof EnderChestBlock || block instanceof AbstractSignBlock || block instanceof SkullBlock;
-                    if (!hasBreak)
-                        hasBreak = te != null && te.canRenderBreaking();
-
-                    if (!hasBreak) {
-                        if (d6 * d6 + d7 * d7 + d8 * d8 > 16384) {
-                            this.extraDamagedBlocks.remove(entry.getKey());
-                        } else {
-                            BlockState iblockstate = mc.world.getBlockState(blockpos);
-
-                            if (iblockstate.getMaterial() != Material.AIR) {
-                                int k1 = destroyblockprogress.getPartialBlockDamage();
-                                TextureAtlasSprite textureatlassprite = this.destroyBlockIcons[k1];
-                                BlockRendererDispatcher blockrendererdispatcher = this.mc.getBlockRendererDispatcher();
-                                blockrendererdispatcher.renderBlockDamage(iblockstate, blockpos, textureatlassprite, this.mc.world);
-                            }
-                        }
-                    }
-                }
-            }
-
-            tessellatorIn.draw();
-            bufferBuilderIn.setTranslation(0.0D, 0.0D, 0.0D);
-            ExtraBlockBreakHandler.postRenderDamagedBlocks();
-        }*/
-    }
-
-    private void cleanupExtraDamagedBlocks() {
-        for (Entry<Integer, DestroyExtraBlocksProgress> entry : this.extraDamagedBlocks.entrySet()) {
-            DestroyExtraBlocksProgress destroyblockprogress = entry.getValue();
-            int k1 = destroyblockprogress.getCreationWorldTick();
-
-            if (this.mc.world.getGameTime() - k1 > 400) {
-                this.extraDamagedBlocks.remove(entry.getKey());
-            }
-        }
-    }
-
-    @Override
-    public void onResourceManagerReload(IResourceManager resourceManager, Predicate<IResourceType> resourcePredicate) {
-/*        AtlasTexture texturemap = this.mc.getTextureMap();
-        if (texturemap == null) return;
-
-        for (int i = 0; i < this.destroyBlockIcons.length; ++i) {
-            this.destroyBlockIcons[i] = texturemap.getAtlasSprite("minecraft:blocks/destroy_stage_" + i);
-        }*/
+    private void cleanupExtraDamagedBlocks(ClientWorld world) {
+        long gameTime = world.getGameTime();
+        this.extraDamagedBlocks.entrySet().removeIf(entry ->
+                gameTime - entry.getValue().getCreationWorldTick() > MAX_AGE || world.getEntityByID(entry.getKey()) == null);
     }
 
     public void sendBlockBreakProgress(int breakerId, BlockPos[] positions, int progress) {
-        if (positions.length > 0 && progress >= 0 && progress < 10) {
-            DestroyExtraBlocksProgress destroyextrablocksprogress = new DestroyExtraBlocksProgress(breakerId, positions);
-            this.extraDamagedBlocks.put(Integer.valueOf(breakerId), destroyextrablocksprogress);
+        if (positions.length > 0 && progress >= 0 && progress < 10 && this.mc.world != null) {
+            DestroyExtraBlocksProgress destroyextrablocksprogress = new DestroyExtraBlocksProgress(positions);
+            this.extraDamagedBlocks.put(breakerId, destroyextrablocksprogress);
 
             destroyextrablocksprogress.setPartialBlockDamage(progress);
-            destroyextrablocksprogress.setWorldTick((int) this.mc.world.getGameTime());
+            destroyextrablocksprogress.setWorldTick(this.mc.world.getGameTime());
         } else {
             this.extraDamagedBlocks.remove(breakerId);
         }
     }
 
     private static class DestroyExtraBlocksProgress {
-        private final int miningPlayerEntId;
         private final BlockPos[] positions;
         /**
-         * damage ranges from 1 to 10. -1 causes the client to delete the partial block renderer.
+         * damage ranges from 0 to 9
          */
         private int partialBlockProgress;
         /**
-         * keeps track of how many ticks this PartiallyDestroyedBlock already exists
+         * world tick when the progress was last updated
          */
-        private int createdAtWorldTick;
+        private long createdAtWorldTick;
 
-        public DestroyExtraBlocksProgress(int miningPlayerEntIdIn, BlockPos... positionsIn) {
-            this.miningPlayerEntId = miningPlayerEntIdIn;
+        public DestroyExtraBlocksProgress(BlockPos... positionsIn) {
             this.positions = positionsIn;
         }
 
@@ -182,8 +128,8 @@ public final class ExtraBlockBreakHandler implements ISelectiveResourceReloadLis
         }
 
         public void setPartialBlockDamage(int damage) {
-            if (damage > 10) {
-                damage = 10;
+            if (damage > 9) {
+                damage = 9;
             }
 
             this.partialBlockProgress = damage;
@@ -193,17 +139,11 @@ public final class ExtraBlockBreakHandler implements ISelectiveResourceReloadLis
             return this.partialBlockProgress;
         }
 
-        /**
-         * saves the current world tick into the DestroyExtraBlocksProgress
-         */
-        public void setWorldTick(int createdAtWorldTickIn) {
+        public void setWorldTick(long createdAtWorldTickIn) {
             this.createdAtWorldTick = createdAtWorldTickIn;
         }
 
-        /**
-         * retrieves the 'date' at which the DestroyExtraBlocksProgress was created
-         */
-        public int getCreationWorldTick() {
+        public long getCreationWorldTick() {
             return this.createdAtWorldTick;
         }
     }
@@ -22,6 +22,7 @@ import net.silentchaos512.gear.config.Config;
 import net.silentchaos512.gear.gear.material.MaterialInstance;
 import net.silentchaos512.gear.gear.part.AbstractGearPart;
 import net.silentchaos512.gear.gear.part.PartData;
+import net.silentchaos512.gear.gear.part.PartEvaluationContext;
 import net.silentchaos512.gear.init.ModTags;
 import net.silentchaos512.gear.api.util.StatGearKey;
 import net.silentchaos512.gear.item.CompoundPartItem;
@@ -263,9 +264,10 @@ public final class TooltipHandler {
     private static void getPartStatLines(ItemTooltipEvent event, ItemStack stack, PartData part) {
         GearType gearType = getPartGearType(part);
 
+        PartEvaluationContext context = new PartEvaluationContext(part, ItemStack.EMPTY);
         TextListBuilder builder = new TextListBuilder();
         for (ItemStat stat : part.getGearType().getRelevantStats()) {
-            Collection<StatInstance> modifiers = part.getStatModifiers(StatGearKey.of(stat, gearType), ItemStack.EMPTY);
+            Collection<StatInstance> modifiers = context.getStatModifiers(StatGearKey.of(stat, gearType));
             getStatTooltipLine(event, part.getType(), stat, modifiers).ifPresent(builder::add);
         }
         event.getToolTip().addAll(builder.build());
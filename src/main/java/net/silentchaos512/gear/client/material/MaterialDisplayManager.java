@@ -5,9 +5,7 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.resources.IResource;
 import net.minecraft.resources.IResourceManager;
-import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.StringTextComponent;
@@ -20,17 +18,20 @@ import net.silentchaos512.gear.api.material.IMaterialDisplay;
 import net.silentchaos512.gear.api.part.IGearPart;
 import net.silentchaos512.gear.api.part.IPartDisplay;
 import net.silentchaos512.gear.api.part.PartDisplay;
+import net.silentchaos512.gear.client.model.BakedModelCache;
 import net.silentchaos512.gear.client.model.fragment.FragmentModelLoader;
 import net.silentchaos512.gear.client.model.gear.GearModelLoader;
 import net.silentchaos512.gear.client.model.part.CompoundPartModelLoader;
+import net.silentchaos512.gear.client.util.ColorUtils;
 import net.silentchaos512.gear.util.IEarlySelectiveReloadListener;
+import net.silentchaos512.gear.util.JsonFileLoader;
 import net.silentchaos512.gear.util.TextUtil;
-import org.apache.commons.io.IOUtils;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 
 // TODO: Rename to GearDisplayManager?
@@ -48,84 +49,99 @@ public final class MaterialDisplayManager implements IEarlySelectiveReloadListen
     private MaterialDisplayManager() {}
 
     @Override
-    public void onResourceManagerReload(IResourceManager resourceManager, Predicate<IResourceType> predicate) {
-        if (predicate.test(VanillaResourceType.MODELS)) {
-            CompoundPartModelLoader.clearCaches();
-            FragmentModelLoader.clearCaches();
-            GearModelLoader.clearCaches();
-
-            ERROR_LIST.clear();
-            reloadMaterials(resourceManager);
-            reloadParts(resourceManager);
+    public CompletableFuture<Void> reloadEarly(IResourceManager resourceManager, Predicate<IResourceType> predicate, Executor backgroundExecutor) {
+        if (!predicate.test(VanillaResourceType.MODELS)) {
+            return CompletableFuture.completedFuture(null);
         }
+
+        CompoundPartModelLoader.clearCaches();
+        FragmentModelLoader.clearCaches();
+        GearModelLoader.clearCaches();
+        BakedModelCache.invalidateAll();
+
+        CompletableFuture<List<JsonFileLoader.ParsedFile>> materials = JsonFileLoader.loadAll(resourceManager, GSON, backgroundExecutor, PATH_MATERIALS);
+        CompletableFuture<List<JsonFileLoader.ParsedFile>> parts = JsonFileLoader.loadAll(resourceManager, GSON, backgroundExecutor, PATH_PARTS);
+        return materials.thenAcceptBothAsync(parts, (materialFiles, partFiles) -> {
+            // Errors are added in file order, materials first
+            synchronized (ERROR_LIST) {
+                ERROR_LIST.clear();
+                reloadMaterials(materialFiles);
+                reloadParts(partFiles);
+            }
+            // Colors blended before this point may have used the old models
+            ColorUtils.clearCache();
+        }, backgroundExecutor);
     }
 
-    private static void reloadMaterials(IResourceManager resourceManager) {
-        Collection<ResourceLocation> resources = resourceManager.getAllResourceLocations(PATH_MATERIALS, s -> s.endsWith(".json"));
-        if (resources.isEmpty()) return;
+    private static void reloadMaterials(List<JsonFileLoader.ParsedFile> files) {
+        if (files.isEmpty()) return;
 
-        synchronized (MATERIALS) {
-            SilentGear.LOGGER.info("Reloading material model files");
-            MATERIALS.clear();
+        SilentGear.LOGGER.info("Reloading material model files");
+        long startTime = System.nanoTime();
+        Map<ResourceLocation, IMaterialDisplay> map = new LinkedHashMap<>();
 
-            String packName = "ERROR";
-            for (ResourceLocation id : resources) {
-                String path = id.getPath().substring(PATH_MATERIALS.length() + 1, id.getPath().length() - ".json".length());
-                ResourceLocation name = new ResourceLocation(id.getNamespace(), path);
-
-                try (IResource iresource = resourceManager.getResource(id)) {
-                    packName = iresource.getPackName();
-                    JsonObject json = JSONUtils.fromJson(GSON, IOUtils.toString(iresource.getInputStream(), StandardCharsets.UTF_8), JsonObject.class);
-
-                    if (json == null) {
-                        SilentGear.LOGGER.error("Could not load material model {} as it's null or empty", name);
-                    } else {
-                        IMaterialDisplay model = MaterialDisplay.deserialize(name, json);
-                        MATERIALS.put(name, model);
-                    }
-                } catch (IllegalArgumentException | JsonParseException ex) {
-                    SilentGear.LOGGER.error("Parsing error loading material model {}", name, ex);
-                    ERROR_LIST.add(String.format("material:%s (%s)", name, packName));
-                } catch (IOException ex) {
-                    SilentGear.LOGGER.error("Could not read material model {}", name, ex);
-                    ERROR_LIST.add(String.format("material:%s (%s)", name, packName));
+        for (JsonFileLoader.ParsedFile file : files) {
+            ResourceLocation name = file.getName();
+            String packName = file.getPackName();
+            try {
+                JsonObject json = file.readJson();
+
+                if (json == null) {
+                    SilentGear.LOGGER.error("Could not load material model {} as it's null or empty", name);
+                } else {
+                    IMaterialDisplay model = MaterialDisplay.deserialize(name, json);
+                    map.put(name, model);
                 }
+            } catch (IllegalArgumentException | JsonParseException ex) {
+                SilentGear.LOGGER.error("Parsing error loading material model {}", name, ex);
+                ERROR_LIST.add(String.format("material:%s (%s)", name, packName));
+            } catch (IOException ex) {
+                SilentGear.LOGGER.error("Could not read material model {}", name, ex);
+                ERROR_LIST.add(String.format("material:%s (%s)", name, packName));
             }
         }
+
+        // Swap in the new models all at once
+        synchronized (MATERIALS) {
+            MATERIALS.clear();
+            MATERIALS.putAll(map);
+        }
+        SilentGear.LOGGER.info("Loaded {} material models in {} ms", map.size(), JsonFileLoader.getMillisSince(startTime));
     }
 
-    private static void reloadParts(IResourceManager resourceManager) {
-        Collection<ResourceLocation> resources = resourceManager.getAllResourceLocations(PATH_PARTS, s -> s.endsWith(".json"));
-        if (resources.isEmpty()) return;
+    private static void reloadParts(List<JsonFileLoader.ParsedFile> files) {
+        if (files.isEmpty()) return;
 
-        synchronized (PARTS) {
-            SilentGear.LOGGER.info("Reloading part model files");
-            PARTS.clear();
+        SilentGear.LOGGER.info("Reloading part model files");
+        long startTime = System.nanoTime();
+        Map<ResourceLocation, IPartDisplay> map = new LinkedHashMap<>();
+
+        for (JsonFileLoader.ParsedFile file : files) {
+            ResourceLocation name = file.getName();
+            String packName = file.getPackName();
+            try {
+                JsonObject json = file.readJson();
 
-            String packName = "ERROR";
-            for (ResourceLocation id : resources) {
-                String path = id.getPath().substring(PATH_PARTS.length() + 1, id.getPath().length() - ".json".length());
-                ResourceLocation name = new ResourceLocation(id.getNamespace(), path);
-
-                try (IResource iresource = resourceManager.getResource(id)) {
-                    packName = iresource.getPackName();
-                    JsonObject json = JSONUtils.fromJson(GSON, IOUtils.toString(iresource.getInputStream(), StandardCharsets.UTF_8), JsonObject.class);
-
-                    if (json == null) {
-                        SilentGear.LOGGER.error("Could not load part model {} as it's null or empty", name);
-                    } else {
-                        IPartDisplay model = PartDisplay.deserialize(name, json);
-                        PARTS.put(name, model);
-                    }
-                } catch (IllegalArgumentException | JsonParseException ex) {
-                    SilentGear.LOGGER.error("Parsing error loading part model {}", name, ex);
-                    ERROR_LIST.add(String.format("part:%s (%s)", name, packName));
-                } catch (IOException ex) {
-                    SilentGear.LOGGER.error("Could not read part model {}", name, ex);
-                    ERROR_LIST.add(String.format("part:%s (%s)", name, packName));
+                if (json == null) {
+                    SilentGear.LOGGER.error("Could not load part model {} as it's null or empty", name);
+                } else {
+                    IPartDisplay model = PartDisplay.deserialize(name, json);
+                    map.put(name, model);
                 }
+            } catch (IllegalArgumentException | JsonParseException ex) {
+                SilentGear.LOGGER.error("Parsing error loading part model {}", name, ex);
+                ERROR_LIST.add(String.format("part:%s (%s)", name, packName));
+            } catch (IOException ex) {
+                SilentGear.LOGGER.error("Could not read part model {}", name, ex);
+                ERROR_LIST.add(String.format("part:%s (%s)", name, packName));
             }
         }
+
+        synchronized (PARTS) {
+            PARTS.clear();
+            PARTS.putAll(map);
+        }
+        SilentGear.LOGGER.info("Loaded {} part models in {} ms", map.size(), JsonFileLoader.getMillisSince(startTime));
     }
 
     public static Collection<IMaterialDisplay> getMaterials() {
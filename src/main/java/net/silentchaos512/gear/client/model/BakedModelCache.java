@@ -0,0 +1,113 @@
+package net.silentchaos512.gear.client.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.client.renderer.model.ItemOverrideList;
+import net.minecraft.util.Direction;
+import net.silentchaos512.gear.SilentGear;
+import net.silentchaos512.gear.util.GearData;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baked model cache shared by gear, compound part and fragment models. Entries are keyed by a
+ * 64-bit fingerprint of the item's model key (see {@link GearData#hashModelKey(String)}) instead of
+ * the key string, plus a small variant number for render state like animation frames. Entries are weighed by their quad count, so an
+ * inventory full of unique gear cannot fill memory with baked models.
+ */
+public final class BakedModelCache {
+    private static final long MAX_WEIGHT = 250_000;
+    private static final Random RANDOM = new Random();
+
+    private static final Cache<Key, IBakedModel> CACHE = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_WEIGHT)
+            .weigher((Key key, IBakedModel model) -> getWeight(model))
+            .expireAfterAccess(5, TimeUnit.MINUTES)
+            .recordStats()
+            .build();
+
+    private BakedModelCache() {throw new IllegalAccessError("Utility class");}
+
+    public static IBakedModel get(ItemOverrideList owner, IBakedModel parent, long fingerprint, int variant, Callable<IBakedModel> loader) throws ExecutionException {
+        return CACHE.get(new Key(owner, parent, fingerprint, variant), loader);
+    }
+
+    /**
+     * Removes all models baked by the override list.
+     *
+     * @param owner The override list
+     */
+    public static void invalidate(ItemOverrideList owner) {
+        CACHE.asMap().keySet().removeIf(key -> key.owner == owner);
+    }
+
+    public static void invalidateAll() {
+        logStats();
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Gets the hit, miss and eviction counts since the game started.
+     *
+     * @return The cache stats
+     */
+    public static CacheStats getStats() {
+        return CACHE.stats();
+    }
+
+    public static long size() {
+        return CACHE.size();
+    }
+
+    private static void logStats() {
+        CacheStats stats = CACHE.stats();
+        SilentGear.LOGGER.debug("Baked model cache: {} entries, {} hits, {} misses, {} evictions",
+                CACHE.size(), stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    private static int getWeight(IBakedModel model) {
+        int quads = model.getQuads(null, null, RANDOM).size();
+        for (Direction side : Direction.values()) {
+            quads += model.getQuads(null, side, RANDOM).size();
+        }
+        return Math.max(1, quads);
+    }
+
+    private static final class Key {
+        private final ItemOverrideList owner;
+        private final IBakedModel parent;
+        private final long fingerprint;
+        private final int variant;
+
+        private Key(ItemOverrideList owner, IBakedModel parent, long fingerprint, int variant) {
+            this.owner = owner;
+            this.parent = parent;
+            this.fingerprint = fingerprint;
+            this.variant = variant;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key other = (Key) o;
+            return owner == other.owner
+                    && parent == other.parent
+                    && fingerprint == other.fingerprint
+                    && variant == other.variant;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(parent);
+            result = 31 * result + Long.hashCode(fingerprint);
+            result = 31 * result + variant;
+            return result;
+        }
+    }
+}
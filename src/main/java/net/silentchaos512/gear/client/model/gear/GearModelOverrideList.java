@@ -1,7 +1,5 @@
 package net.silentchaos512.gear.client.model.gear;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import net.minecraft.client.renderer.model.*;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -21,6 +19,7 @@ import net.silentchaos512.gear.api.part.IPartDisplay;
 import net.silentchaos512.gear.api.part.PartDataList;
 import net.silentchaos512.gear.api.part.PartType;
 import net.silentchaos512.gear.client.material.MaterialDisplayManager;
+import net.silentchaos512.gear.client.model.BakedModelCache;
 import net.silentchaos512.gear.client.model.PartTextures;
 import net.silentchaos512.gear.config.Config;
 import net.silentchaos512.gear.gear.material.MaterialInstance;
@@ -34,18 +33,11 @@ import net.silentchaos512.utils.Color;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 public class GearModelOverrideList extends ItemOverrideList {
-    private final Cache<CacheKey, IBakedModel> bakedModelCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(5, TimeUnit.MINUTES)
-            .build();
-
     private final GearModel model;
     private final IModelConfiguration owner;
     private final ModelBakery bakery;
@@ -76,9 +68,10 @@ public class GearModelOverrideList extends ItemOverrideList {
     @Override
     public IBakedModel getOverrideModel(IBakedModel model, ItemStack stack, @Nullable ClientWorld worldIn, @Nullable LivingEntity entityIn) {
         int animationFrame = getAnimationFrame(stack, worldIn, entityIn);
-        CacheKey key = getKey(model, stack, worldIn, entityIn, animationFrame);
+        long fingerprint = GearData.getModelFingerprint(stack);
+        int variant = getVariant(stack, worldIn, entityIn, animationFrame);
         try {
-            return bakedModelCache.get(key, () -> getOverrideModel(key, stack, worldIn, entityIn, animationFrame));
+            return BakedModelCache.get(this, model, fingerprint, variant, () -> getOverrideModel(fingerprint, stack, worldIn, entityIn, animationFrame));
         } catch (ExecutionException e) {
             e.printStackTrace();
         }
@@ -89,11 +82,11 @@ public class GearModelOverrideList extends ItemOverrideList {
         return ((ICoreItem) stack.getItem()).getAnimationFrame(stack, world, entity);
     }
 
-    private IBakedModel getOverrideModel(CacheKey key, ItemStack stack, @Nullable ClientWorld worldIn, @Nullable LivingEntity entityIn, int animationFrame) {
+    private IBakedModel getOverrideModel(long fingerprint, ItemStack stack, @Nullable ClientWorld worldIn, @Nullable LivingEntity entityIn, int animationFrame) {
         boolean broken = GearHelper.isBroken(stack);
         if (isDebugLoggingEnabled()) {
             SilentGear.LOGGER.info("getOverrideModel for {} ({})", stack.getDisplayName().getString(), broken ? "broken" : "normal");
-            SilentGear.LOGGER.info("- model key {}", key.data);
+            SilentGear.LOGGER.info("- model key {} ({})", GearData.getModelKey(stack, animationFrame), Long.toHexString(fingerprint));
         }
         List<MaterialLayer> layers = new ArrayList<>();
 
@@ -202,12 +195,15 @@ public class GearModelOverrideList extends ItemOverrideList {
         return Optional.empty();
     }
 
-    private static CacheKey getKey(IBakedModel model, ItemStack stack, @Nullable ClientWorld world, @Nullable LivingEntity entity, int animationFrame) {
-        String brokenSuffix = GearHelper.isBroken(stack) ? "broken" : "";
-        String chargeSuffix = getCrossbowCharge(stack, world, entity)
-                .map(l -> ";" + l.getTextureId().getPath())
-                .orElse("");
-        return new CacheKey(model, GearData.getModelKey(stack, animationFrame) + brokenSuffix + chargeSuffix);
+    /**
+     * Packs the render state which is not part of the model key: the animation frame, whether the
+     * item is broken, and the crossbow charge.
+     */
+    private static int getVariant(ItemStack stack, @Nullable ClientWorld world, @Nullable LivingEntity entity, int animationFrame) {
+        int charge = getCrossbowCharge(stack, world, entity)
+                .map(layer -> layer.getTextureId().equals(PartTextures.CHARGED_FIREWORK) ? 2 : 1)
+                .orElse(0);
+        return (animationFrame << 3) | (GearHelper.isBroken(stack) ? 4 : 0) | charge;
     }
 
     @Override
@@ -217,29 +213,6 @@ public class GearModelOverrideList extends ItemOverrideList {
 
     public void clearCache() {
         SilentGear.LOGGER.debug("Clearing model cache for {}", this.model.gearType);
-        bakedModelCache.invalidateAll();
-    }
-
-    static final class CacheKey {
-        final IBakedModel parent;
-        final String data;
-
-        CacheKey(IBakedModel parent, String hash) {
-            this.parent = parent;
-            this.data = hash;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CacheKey cacheKey = (CacheKey) o;
-            return parent == cacheKey.parent && Objects.equals(data, cacheKey.data);
-        }
-
-        @Override
-        public int hashCode() {
-            return 31 * parent.hashCode() + data.hashCode();
-        }
+        BakedModelCache.invalidate(this);
     }
 }
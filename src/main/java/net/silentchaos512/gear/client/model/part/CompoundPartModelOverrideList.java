@@ -1,7 +1,5 @@
 package net.silentchaos512.gear.client.model.part;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import net.minecraft.client.renderer.model.*;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -9,30 +7,24 @@ import net.minecraft.client.world.ClientWorld;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
-import net.minecraft.world.World;
 import net.minecraftforge.client.model.IModelConfiguration;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.material.IMaterialDisplay;
 import net.silentchaos512.gear.api.material.MaterialLayer;
 import net.silentchaos512.gear.client.material.MaterialDisplayManager;
+import net.silentchaos512.gear.client.model.BakedModelCache;
 import net.silentchaos512.gear.gear.material.MaterialInstance;
 import net.silentchaos512.gear.item.CompoundPartItem;
 import net.silentchaos512.gear.gear.part.PartData;
+import net.silentchaos512.gear.util.GearData;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 public class CompoundPartModelOverrideList extends ItemOverrideList {
-    private final Cache<CacheKey, IBakedModel> bakedModelCache = CacheBuilder.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(5, TimeUnit.MINUTES)
-            .build();
-
     private final CompoundPartModel model;
     private final IModelConfiguration owner;
     private final ModelBakery bakery;
@@ -58,9 +50,9 @@ public class CompoundPartModelOverrideList extends ItemOverrideList {
     @Nullable
     @Override
     public IBakedModel getOverrideModel(IBakedModel model, ItemStack stack, @Nullable ClientWorld worldIn, @Nullable LivingEntity entityIn) {
-        CacheKey key = getKey(model, stack, worldIn, entityIn);
+        long fingerprint = GearData.hashModelKey(CompoundPartItem.getModelKey(stack));
         try {
-            return bakedModelCache.get(key, () -> getOverrideModel(stack, worldIn, entityIn));
+            return BakedModelCache.get(this, model, fingerprint, 0, () -> getOverrideModel(stack, worldIn, entityIn));
         } catch (ExecutionException e) {
             e.printStackTrace();
         }
@@ -95,10 +87,6 @@ public class CompoundPartModelOverrideList extends ItemOverrideList {
         }
     }
 
-    private static CacheKey getKey(IBakedModel model, ItemStack stack, @Nullable World world, @Nullable LivingEntity entity) {
-        return new CacheKey(model, CompoundPartItem.getModelKey(stack));
-    }
-
     @Override
     public ImmutableList<ItemOverride> getOverrides() {
         return super.getOverrides();
@@ -107,29 +95,6 @@ public class CompoundPartModelOverrideList extends ItemOverrideList {
     @SuppressWarnings("WeakerAccess")
     public void clearCache() {
         SilentGear.LOGGER.debug("Clearing model cache for {}/{}", this.model.partType, this.model.gearType);
-        bakedModelCache.invalidateAll();
-    }
-
-    static final class CacheKey {
-        final IBakedModel parent;
-        final String data;
-
-        CacheKey(IBakedModel parent, String hash) {
-            this.parent = parent;
-            this.data = hash;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CacheKey cacheKey = (CacheKey) o;
-            return parent == cacheKey.parent && Objects.equals(data, cacheKey.data);
-        }
-
-        @Override
-        public int hashCode() {
-            return 31 * parent.hashCode() + data.hashCode();
-        }
+        BakedModelCache.invalidate(this);
     }
 }
@@ -0,0 +1,40 @@
+package net.silentchaos512.gear.client.util;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.network.play.ClientPlayNetHandler;
+import net.minecraft.client.util.SearchTreeManager;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.RecipesUpdatedEvent;
+import net.minecraftforge.common.MinecraftForge;
+import net.silentchaos512.gear.SilentGear;
+import net.silentchaos512.gear.gear.material.MaterialManager;
+import net.silentchaos512.gear.gear.part.PartManager;
+
+/**
+ * Refreshes client state built from recipes and tags after delta sync has applied entries which
+ * were missing at login. Vanilla sends recipes and tags before those entries arrive, so anything
+ * built from them at that point saw an incomplete set of materials, parts and traits.
+ */
+@OnlyIn(Dist.CLIENT)
+public final class ClientSyncRefresh {
+    private ClientSyncRefresh() {throw new IllegalAccessError("Utility class");}
+
+    public static void refresh() {
+        Minecraft mc = Minecraft.getInstance();
+        ClientPlayNetHandler connection = mc.getConnection();
+        if (connection == null) return;
+
+        SilentGear.LOGGER.debug("Refreshing recipes and tags after delta sync");
+
+        // Same as the tags updated handler: crafting item indexes may contain tag ingredients
+        MaterialManager.invalidateIngredientIndex();
+        PartManager.invalidateIngredientIndex();
+
+        // Gear recipe example outputs are rebuilt with the new data, so recipe book names change
+        mc.getSearchTree(SearchTreeManager.RECIPES).recalculate();
+
+        // JEI and other recipe viewers reload their recipes on this event
+        MinecraftForge.EVENT_BUS.post(new RecipesUpdatedEvent(connection.getRecipeManager()));
+    }
+}
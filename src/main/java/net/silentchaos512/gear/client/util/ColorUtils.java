@@ -1,102 +1,179 @@
 package net.silentchaos512.gear.client.util;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.item.Item;
+import net.minecraft.util.ResourceLocation;
+import net.silentchaos512.gear.api.item.GearType;
 import net.silentchaos512.gear.api.item.ICoreItem;
 import net.silentchaos512.gear.api.material.IMaterialDisplay;
 import net.silentchaos512.gear.api.material.IMaterialInstance;
 import net.silentchaos512.gear.api.material.MaterialLayer;
 import net.silentchaos512.gear.api.part.IPartData;
+import net.silentchaos512.gear.api.part.PartType;
 import net.silentchaos512.gear.client.material.MaterialDisplayManager;
 import net.silentchaos512.gear.item.CompoundPartItem;
 import net.silentchaos512.utils.Color;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+/**
+ * Blends material colors for gear and part layers. Blended colors only depend on the gear type,
+ * part type, material IDs and layer, so results are cached until material models are reloaded
+ * (see {@link #clearCache()}). Item color handlers call these every frame for every layer.
+ * <p>
+ * Keys include the reload generation, so a color blended from old models while a reload was
+ * happening can never be returned after the cache is cleared.
+ */
 public final class ColorUtils {
+    private static final Cache<Key, Integer> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(8192)
+            .build();
+    private static volatile int generation = 0;
+
     private ColorUtils() {}
 
-    @SuppressWarnings("OverlyLongMethod")
     public static int getBlendedColor(ICoreItem item, IPartData part, Collection<? extends IMaterialInstance> materials, int layer) {
-        int[] componentSums = new int[3];
-        int maxColorSum = 0;
-        int colorCount = 0;
+        GearType gearType = item.getGearType();
+        Key key = new Key(null, gearType, part.getType(), materials, layer);
+        return getCached(key, () -> blendGearColor(gearType, part, materials, layer));
+    }
+
+    public static int getBlendedColor(CompoundPartItem item, Collection<? extends IMaterialInstance> materials, int layer) {
+        // Part items have their own color weights, so the item is part of the key
+        Key key = new Key(item, item.getGearType(), item.getPartType(), materials, layer);
+        return getCached(key, () -> blendPartItemColor(item, materials, layer));
+    }
+
+    /**
+     * Clears the cache. Call after the new material and part models are in place.
+     */
+    public static void clearCache() {
+        ++generation;
+        CACHE.invalidateAll();
+    }
+
+    private static int getCached(Key key, Callable<Integer> loader) {
+        try {
+            return CACHE.get(key, loader);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        }
+    }
 
+    private static int blendGearColor(GearType gearType, IPartData part, Collection<? extends IMaterialInstance> materials, int layer) {
+        Blender blender = new Blender();
         int i = 0;
         for (IMaterialInstance mat : materials) {
             IMaterialDisplay model = MaterialDisplayManager.getMaterial(mat.getId());
-            int color = model.getLayerColor(item.getGearType(), part, layer);
-            int r = (color >> 16) & 0xFF;
-            int g = (color >> 8) & 0xFF;
-            int b = color & 0xFF;
+            int color = model.getLayerColor(gearType, part, layer);
             int colorWeight = (materials.size() - i) * (materials.size() - i);
-            for (int j = 0; j < colorWeight; ++j) {
-                maxColorSum += Math.max(r, Math.max(g, b));
-                componentSums[0] += r;
-                componentSums[1] += g;
-                componentSums[2] += b;
-                ++colorCount;
-            }
+            blender.add(color, colorWeight);
             ++i;
         }
-
-        if (colorCount > 0) {
-            int r = componentSums[0] / colorCount;
-            int g = componentSums[1] / colorCount;
-            int b = componentSums[2] / colorCount;
-            float maxAverage = (float) maxColorSum / (float) colorCount;
-            float max = (float) Math.max(r, Math.max(g, b));
-            r = (int) ((float) r * maxAverage / max);
-            g = (int) ((float) g * maxAverage / max);
-            b = (int) ((float) b * maxAverage / max);
-            int finalColor = (r << 8) + g;
-            finalColor = (finalColor << 8) + b;
-            return finalColor;
-        }
-
-        return Color.VALUE_WHITE;
+        return blender.getColor();
     }
 
-    @SuppressWarnings("OverlyLongMethod")
-    public static int getBlendedColor(CompoundPartItem item, Collection<? extends IMaterialInstance> materials, int layer) {
-        int[] componentSums = new int[3];
-        int maxColorSum = 0;
-        int colorCount = 0;
-
+    private static int blendPartItemColor(CompoundPartItem item, Collection<? extends IMaterialInstance> materials, int layer) {
+        Blender blender = new Blender();
         int i = 0;
         for (IMaterialInstance mat : materials) {
             IMaterialDisplay model = MaterialDisplayManager.getMaterial(mat.getId());
             List<MaterialLayer> layers = model.getLayers(item.getGearType(), item.getPartType()).getLayers();
             if (layers.size() > layer) {
                 int color = layers.get(layer).getColor();
-                int r = (color >> 16) & 0xFF;
-                int g = (color >> 8) & 0xFF;
-                int b = color & 0xFF;
                 int colorWeight = item.getColorWeight(i, materials.size());
-                for (int j = 0; j < colorWeight; ++j) {
-                    maxColorSum += Math.max(r, Math.max(g, b));
-                    componentSums[0] += r;
-                    componentSums[1] += g;
-                    componentSums[2] += b;
-                    ++colorCount;
-                }
+                blender.add(color, colorWeight);
                 ++i;
             }
         }
+        return blender.getColor();
+    }
+
+    private static final class Blender {
+        private final int[] componentSums = new int[3];
+        private int maxColorSum = 0;
+        private int colorCount = 0;
+
+        private void add(int color, int weight) {
+            if (weight <= 0) return;
 
-        if (colorCount > 0) {
-            int r = componentSums[0] / colorCount;
-            int g = componentSums[1] / colorCount;
-            int b = componentSums[2] / colorCount;
-            float maxAverage = (float) maxColorSum / (float) colorCount;
-            float max = (float) Math.max(r, Math.max(g, b));
-            r = (int) ((float) r * maxAverage / max);
-            g = (int) ((float) g * maxAverage / max);
-            b = (int) ((float) b * maxAverage / max);
-            int finalColor = (r << 8) + g;
-            finalColor = (finalColor << 8) + b;
-            return finalColor;
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+            // Same as adding the color once per unit of weight
+            maxColorSum += weight * Math.max(r, Math.max(g, b));
+            componentSums[0] += weight * r;
+            componentSums[1] += weight * g;
+            componentSums[2] += weight * b;
+            colorCount += weight;
         }
 
-        return Color.VALUE_WHITE;
+        private int getColor() {
+            if (colorCount > 0) {
+                int r = componentSums[0] / colorCount;
+                int g = componentSums[1] / colorCount;
+                int b = componentSums[2] / colorCount;
+                float maxAverage = (float) maxColorSum / (float) colorCount;
+                float max = (float) Math.max(r, Math.max(g, b));
+                r = (int) ((float) r * maxAverage / max);
+                g = (int) ((float) g * maxAverage / max);
+                b = (int) ((float) b * maxAverage / max);
+                int finalColor = (r << 8) + g;
+                finalColor = (finalColor << 8) + b;
+                return finalColor;
+            }
+
+            return Color.VALUE_WHITE;
+        }
+    }
+
+    private static final class Key {
+        private final int generation;
+        @Nullable private final Item partItem;
+        private final GearType gearType;
+        private final PartType partType;
+        private final ResourceLocation[] materialIds;
+        private final int layer;
+        private final int hash;
+
+        private Key(@Nullable Item partItem, GearType gearType, PartType partType, Collection<? extends IMaterialInstance> materials, int layer) {
+            this.generation = ColorUtils.generation;
+            this.partItem = partItem;
+            this.gearType = gearType;
+            this.partType = partType;
+            this.materialIds = new ResourceLocation[materials.size()];
+            this.layer = layer;
+
+            int i = 0;
+            for (IMaterialInstance mat : materials) {
+                this.materialIds[i++] = mat.getId();
+            }
+            this.hash = 31 * Objects.hash(generation, partItem, gearType, partType, layer) + Arrays.hashCode(this.materialIds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key other = (Key) o;
+            return generation == other.generation
+                    && partItem == other.partItem
+                    && gearType == other.gearType
+                    && partType == other.partType
+                    && layer == other.layer
+                    && Arrays.equals(materialIds, other.materialIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
@@ -17,12 +17,15 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.TranslationTextComponent;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.registries.ForgeRegistryEntry;
+import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.item.ICoreItem;
 import net.silentchaos512.gear.init.ModItems;
 import net.silentchaos512.gear.util.GearGenerator;
 import net.silentchaos512.lib.util.PlayerUtils;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 
 public final class RandomGearCommand {
     private static final SuggestionProvider<CommandSource> itemIdSuggestions = (context, builder) ->
@@ -62,12 +65,14 @@ public final class RandomGearCommand {
             return 0;
         }
 
+        List<ItemStack> stacks = GearGenerator.createBatch((ICoreItem) item, tier, players.size(), SilentGear.RANDOM);
+        Iterator<ItemStack> iterator = stacks.iterator();
         for (ServerPlayerEntity player : players) {
-            ItemStack stack = GearGenerator.create((ICoreItem) item, tier);
-            if (!stack.isEmpty()) {
-                context.getSource().sendFeedback(new TranslationTextComponent("commands.give.success.single", 1, stack.getTextComponent(), player.getDisplayName()), true);
-                PlayerUtils.giveItem(player, stack.copy());
-            }
+            if (!iterator.hasNext()) break;
+
+            ItemStack stack = iterator.next();
+            context.getSource().sendFeedback(new TranslationTextComponent("commands.give.success.single", 1, stack.getTextComponent(), player.getDisplayName()), true);
+            PlayerUtils.giveItem(player, stack.copy());
         }
 
         return 1;
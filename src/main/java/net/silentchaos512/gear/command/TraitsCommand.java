@@ -242,10 +242,10 @@ public final class TraitsCommand {
         StringBuilder str = new StringBuilder();
         boolean foundAny = false;
 
-        for (IGearPart part : PartManager.getValues()) {
+        for (IGearPart part : PartManager.getVisibleParts()) {
             PartData partData = PartData.of(part);
             for (TraitInstance inst : partData.getTraits()) {
-                if (inst.getTrait().equals(trait) && part.isVisible()) {
+                if (inst.getTrait().equals(trait)) {
                     if (foundAny) {
                         str.append(", ");
                     }
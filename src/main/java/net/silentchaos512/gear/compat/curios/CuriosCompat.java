@@ -14,9 +14,11 @@ import net.silentchaos512.gear.api.item.ICoreItem;
 import net.silentchaos512.gear.api.traits.ITrait;
 import net.silentchaos512.gear.item.gear.CoreElytra;
 import net.silentchaos512.gear.util.DataResource;
+import net.silentchaos512.gear.util.EquipmentAggregate;
 import net.silentchaos512.gear.util.TraitHelper;
 import top.theillusivec4.curios.api.CuriosApi;
 import top.theillusivec4.curios.api.SlotTypePreset;
+import top.theillusivec4.curios.api.event.CurioChangeEvent;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +32,10 @@ public final class CuriosCompat {
         InterModComms.sendTo("curios", "register_type", () -> SlotTypePreset.RING.getMessageBuilder().size(2).build());
     }
 
+    public static void onCurioChange(CurioChangeEvent event) {
+        EquipmentAggregate.invalidate(event.getEntityLiving());
+    }
+
     public static ICapabilityProvider createProvider(ItemStack stack) {
         return createProvider(stack, multimap -> {});
     }
@@ -45,6 +45,8 @@ public final class Config {
         public static final ForgeConfigSpec.IntValue damageFactorLevels;
         public static final ForgeConfigSpec.BooleanValue gearBreaksPermanently;
         public static final ForgeConfigSpec.IntValue prospectorHammerRange;
+        public static final ForgeConfigSpec.IntValue magneticUpdateInterval;
+        public static final ForgeConfigSpec.IntValue magneticMaxItemsPerUpdate;
         public static final ForgeConfigSpec.DoubleValue repairFactorAnvil;
         public static final ForgeConfigSpec.DoubleValue repairFactorQuick;
         public static final ForgeConfigSpec.IntValue repairKitVeryCrudeCapacity;
@@ -73,6 +75,8 @@ public final class Config {
         public static final ForgeConfigSpec.IntValue wildFlaxPatchCount;
         // Compatibility
         public static final ForgeConfigSpec.BooleanValue mineAndSlashSupport;
+        // Network
+        public static final ForgeConfigSpec.BooleanValue deltaSyncEnabled;
         // Debug
         public static final ForgeConfigSpec.BooleanValue extraPartAndTraitLogging;
         public static final ForgeConfigSpec.BooleanValue statsDebugLogging;
@@ -203,6 +207,18 @@ public final class Config {
                             .defineInRange("range", 16, 0, 64);
                     builder.pop();
                 }
+                {
+                    builder.comment("Settings for the magnetic trait");
+                    builder.push("magnetic");
+                    magneticUpdateInterval = builder
+                            .comment("How often, in ticks, items are pulled toward players. Pulls are stronger to make up for longer intervals.",
+                                    "Higher numbers reduce server load with many items or players, but items move less smoothly.")
+                            .defineInRange("updateInterval", 2, 1, 20);
+                    magneticMaxItemsPerUpdate = builder
+                            .comment("The most item entities which can be pulled each update, across all players")
+                            .defineInRange("maxItemsPerUpdate", 512, 1, Integer.MAX_VALUE);
+                    builder.pop();
+                }
                 {
                     builder.comment("Settings for AOE tools (hammer, excavator)",
                             "Match modes determine what blocks are considered similar enough to be mined together.",
@@ -293,6 +309,11 @@ public final class Config {
                     .comment("Enable compatibility with the Mine and Slash mod, if installed")
                     .define("compat.mineAndSlash.enabled", true);
 
+            deltaSyncEnabled = builder
+                    .comment("On login, send only the materials, parts and traits which clients do not already have cached from a previous session.",
+                            "If disabled, everything is sent on every login. Only the server's setting matters.")
+                    .define("network.deltaSync", true);
+
             extraPartAndTraitLogging = builder
                     .comment("Log additional information related to loading and synchronizing gear parts and traits.",
                             "This might help track down more obscure issues.")
@@ -0,0 +1,131 @@
+package net.silentchaos512.gear.crafting.recipe;
+
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.silentchaos512.gear.gear.part.PartData;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the parts and crafting check of a gear recipe for each crafting grid. Minecraft calls
+ * {@code matches} and {@code getCraftingResult} on every slot change, and auto-crafters call them
+ * constantly, but the grid usually has not changed since the last call. A grid is considered
+ * unchanged if every slot holds the same stack instance with the same item and NBT hash.
+ * <p>
+ * The result itself is not remembered. Every crafted item needs its own UUID, and trait crafting
+ * hooks must run for each one. The recipe's example output is remembered, but rebuilt when the
+ * data it was built from changes.
+ * <p>
+ * Each gear recipe has its own memo. Memos are cleared whenever parts, materials or traits are
+ * reloaded (see {@link #invalidateAll()}).
+ */
+public final class GearRecipeMemo {
+    private static volatile int generation = 0;
+
+    private final Map<IInventory, Grid> grids = Collections.synchronizedMap(new WeakHashMap<>());
+    @Nullable private volatile ItemStack exampleOutput;
+    private volatile int exampleGeneration;
+
+    public static void invalidateAll() {
+        ++generation;
+    }
+
+    /**
+     * Gets the recipe's example output, building it again if parts, materials or traits have
+     * changed since it was built. On clients, data can arrive after recipes (see {@link
+     * net.silentchaos512.gear.network.DeltaSync}).
+     *
+     * @param factory Builds the example output
+     * @return The example output
+     */
+    ItemStack getExampleOutput(Supplier<ItemStack> factory) {
+        ItemStack output = exampleOutput;
+        int currentGeneration = generation;
+        if (output == null || exampleGeneration != currentGeneration) {
+            output = factory.get();
+            exampleOutput = output;
+            exampleGeneration = currentGeneration;
+        }
+        return output;
+    }
+
+    /**
+     * Gets the memoized state for the inventory, parsing the parts again only if the grid has
+     * changed.
+     *
+     * @param inv         The crafting grid
+     * @param partsParser Gets the parts from the grid
+     * @return The memoized grid state
+     */
+    Grid get(IInventory inv, Function<IInventory, Collection<PartData>> partsParser) {
+        Grid grid = grids.get(inv);
+        if (grid == null || !grid.isSameAs(inv)) {
+            grid = new Grid(inv, partsParser.apply(inv));
+            grids.put(inv, grid);
+        }
+        return grid;
+    }
+
+    static final class Grid {
+        private final int generation;
+        private final ItemStack[] stacks;
+        private final Item[] items;
+        private final int[] tagHashes;
+        private final Collection<PartData> parts;
+        @Nullable private Boolean craftingAllowed;
+
+        private Grid(IInventory inv, Collection<PartData> parts) {
+            int size = inv.getSizeInventory();
+            this.generation = GearRecipeMemo.generation;
+            this.stacks = new ItemStack[size];
+            this.items = new Item[size];
+            this.tagHashes = new int[size];
+            this.parts = Collections.unmodifiableCollection(parts);
+
+            for (int i = 0; i < size; ++i) {
+                ItemStack stack = inv.getStackInSlot(i);
+                this.stacks[i] = stack;
+                this.items[i] = stack.getItem();
+                this.tagHashes[i] = getTagHash(stack);
+            }
+        }
+
+        private boolean isSameAs(IInventory inv) {
+            if (this.generation != GearRecipeMemo.generation || inv.getSizeInventory() != this.stacks.length) {
+                return false;
+            }
+
+            for (int i = 0; i < this.stacks.length; ++i) {
+                ItemStack stack = inv.getStackInSlot(i);
+                if (stack != this.stacks[i] || stack.getItem() != this.items[i] || getTagHash(stack) != this.tagHashes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Collection<PartData> getParts() {
+            return parts;
+        }
+
+        boolean isCraftingAllowed(Supplier<Boolean> check) {
+            if (craftingAllowed == null) {
+                craftingAllowed = check.get();
+            }
+            return craftingAllowed;
+        }
+
+        private static int getTagHash(ItemStack stack) {
+            CompoundNBT tag = stack.getTag();
+            return tag != null ? tag.hashCode() : 0;
+        }
+    }
+}
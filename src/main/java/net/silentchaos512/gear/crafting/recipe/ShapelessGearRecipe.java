@@ -6,7 +6,6 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.IRecipeSerializer;
 import net.minecraft.item.crafting.ShapelessRecipe;
 import net.minecraft.world.World;
-import net.minecraftforge.common.util.Lazy;
 import net.silentchaos512.gear.api.item.GearType;
 import net.silentchaos512.gear.api.item.ICoreItem;
 import net.silentchaos512.gear.gear.part.PartData;
@@ -17,7 +16,7 @@ import net.silentchaos512.lib.crafting.recipe.ExtendedShapelessRecipe;
 
 public final class ShapelessGearRecipe extends ExtendedShapelessRecipe implements IGearRecipe {
     private final ICoreItem item;
-    private final Lazy<ItemStack> exampleOutput;
+    private final GearRecipeMemo memo = new GearRecipeMemo();
 
     public ShapelessGearRecipe(ShapelessRecipe recipe) {
         super(recipe);
@@ -27,13 +26,13 @@ public final class ShapelessGearRecipe extends ExtendedShapelessRecipe implement
             throw new JsonParseException("result is not a gear item: " + output);
         }
         this.item = (ICoreItem) output.getItem();
+    }
 
-        this.exampleOutput = Lazy.of(() -> {
-            // Create an example item, so we're not just showing a broken item
-            ItemStack result = item.construct(GearHelper.getExamplePartsFromRecipe(this.item.getGearType(), getIngredients()));
-            GearData.setExampleTag(result, true);
-            return result;
-        });
+    private ItemStack createExampleOutput() {
+        // Create an example item, so we're not just showing a broken item
+        ItemStack result = item.construct(GearHelper.getExamplePartsFromRecipe(this.item.getGearType(), getIngredients()));
+        GearData.setExampleTag(result, true);
+        return result;
     }
 
     @Override
@@ -45,18 +44,22 @@ public final class ShapelessGearRecipe extends ExtendedShapelessRecipe implement
     public boolean matches(CraftingInventory inv, World worldIn) {
         if (!this.getBaseRecipe().matches(inv, worldIn)) return false;
 
-        GearType gearType = item.getGearType();
-        for (PartData part : getParts(inv)) {
-            if (!part.isCraftingAllowed(gearType, inv)) {
-                return false;
+        GearRecipeMemo.Grid grid = memo.get(inv, this::getParts);
+        return grid.isCraftingAllowed(() -> {
+            GearType gearType = item.getGearType();
+            for (PartData part : grid.getParts()) {
+                if (!part.isCraftingAllowed(gearType, inv)) {
+                    return false;
+                }
             }
-        }
-        return true;
+            return true;
+        });
     }
 
     @Override
     public ItemStack getCraftingResult(CraftingInventory inv) {
-        return item.construct(getParts(inv));
+        // Built fresh every time, so each result gets its own UUID and crafting hooks
+        return item.construct(memo.get(inv, this::getParts).getParts());
     }
 
     @Override
@@ -66,7 +69,7 @@ public final class ShapelessGearRecipe extends ExtendedShapelessRecipe implement
 
     @Override
     public ItemStack getRecipeOutput() {
-        return exampleOutput.get();
+        return memo.getExampleOutput(this::createExampleOutput);
     }
 
     @Override
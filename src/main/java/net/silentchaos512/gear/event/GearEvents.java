@@ -25,7 +25,6 @@ import net.minecraft.enchantment.Enchantments;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.LivingEntity;
-import net.minecraft.entity.item.ItemEntity;
 import net.minecraft.entity.passive.CatEntity;
 import net.minecraft.entity.passive.ChickenEntity;
 import net.minecraft.entity.passive.RabbitEntity;
@@ -50,9 +49,7 @@ import net.minecraft.tags.FluidTags;
 import net.minecraft.util.DamageSource;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.Util;
-import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.world.IBlockDisplayReader;
 import net.minecraft.world.LightType;
 import net.minecraft.world.World;
@@ -76,7 +73,6 @@ import net.silentchaos512.gear.gear.material.MaterialInstance;
 import net.silentchaos512.gear.gear.part.CompoundPart;
 import net.silentchaos512.gear.gear.part.PartData;
 import net.silentchaos512.gear.item.CompoundPartItem;
-import net.silentchaos512.gear.item.gear.CoreArmor;
 import net.silentchaos512.gear.util.*;
 import net.silentchaos512.lib.advancements.LibTriggers;
 import net.silentchaos512.lib.util.EntityHelper;
@@ -188,13 +184,7 @@ public final class GearEvents {
     }
 
     private static float getTotalMagicArmor(LivingEntity entity) {
-        float total = 0f;
-        for (ItemStack stack : entity.getArmorInventoryList()) {
-            if (stack.getItem() instanceof CoreArmor) {
-                total += ((CoreArmor) stack.getItem()).getArmorMagicProtection(stack);
-            }
-        }
-        return total;
+        return EquipmentAggregate.get(entity).getMagicArmor();
     }
 
     private static float getReducedMagicDamageScale(float magicArmor) {
@@ -369,11 +359,13 @@ public final class GearEvents {
     @SubscribeEvent
     public static void onPlayerTick(TickEvent.PlayerTickEvent event) {
         if (!event.player.world.isRemote) {
-            int magnetic = Math.max(TraitHelper.getHighestLevelEitherHand(event.player, Const.Traits.MAGNETIC),
-                    TraitHelper.getHighestLevelCurio(event.player, Const.Traits.MAGNETIC));
+            if (event.phase == TickEvent.Phase.END && MagneticAttraction.isPullTick(event.player.world)) {
+                int magnetic = Math.max(TraitHelper.getHighestLevelEitherHand(event.player, Const.Traits.MAGNETIC),
+                        TraitHelper.getHighestLevelCurio(event.player, Const.Traits.MAGNETIC));
 
-            if (magnetic > 0) {
-                tickMagnetic(event.player, magnetic);
+                if (magnetic > 0) {
+                    MagneticAttraction.addPlayer(event.player, magnetic);
+                }
             }
 
             // Turtle trait
@@ -385,31 +377,6 @@ public final class GearEvents {
         }
     }
 
-    private static void tickMagnetic(PlayerEntity player, int magneticLevel) {
-        if (player.isCrouching()) return;
-
-        final int range = magneticLevel * 3 + 1;
-        Vector3d target = new Vector3d(player.getPosX(), player.getPosYHeight(0.5), player.getPosZ());
-
-        AxisAlignedBB aabb = new AxisAlignedBB(player.getPosX() - range, player.getPosY() - range, player.getPosZ() - range, player.getPosX() + range + 1, player.getPosY() + range + 1, player.getPosZ() + range + 1);
-        for (ItemEntity entity : player.world.getEntitiesWithinAABB(ItemEntity.class, aabb, e -> e.getDistanceSq(player) < range * range)) {
-            if (canMagneticPullItem(entity)) {
-                // Accelerate to target point
-                Vector3d vec = entity.func_230268_c_(player).subtractReverse(target);
-                vec = vec.normalize().scale(0.03);
-                if (entity.getPosY() < target.y) {
-                    double xzDistanceSq = (entity.getPosX() - target.x) * (entity.getPosX() - target.x) + (entity.getPosZ() - target.z) * (entity.getPosZ() - target.z);
-                    vec = vec.add(0, 0.005 + xzDistanceSq / 1000, 0);
-                }
-                entity.addVelocity(vec.x, vec.y, vec.z);
-            }
-        }
-    }
-
-    private static boolean canMagneticPullItem(ItemEntity entity) {
-        return !entity.cannotPickup() && !entity.getPersistentData().getBoolean("PreventRemoteMovement");
-    }
-
     @SubscribeEvent
     public static void onLivingFall(LivingFallEvent event) {
         ItemStack stack = event.getEntityLiving().getItemStackFromSlot(EquipmentSlotType.FEET);
@@ -10,6 +10,7 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.network.NetworkDirection;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.gear.material.MaterialManager;
+import net.silentchaos512.gear.network.DeltaSync;
 import net.silentchaos512.gear.network.Network;
 import net.silentchaos512.gear.network.SyncGearCraftingItemsPacket;
 import net.silentchaos512.gear.network.SyncMaterialCraftingItemsPacket;
@@ -31,6 +32,9 @@ public final class ServerEvents {
 
         ServerPlayerEntity playerMP = (ServerPlayerEntity) player;
 
+        // Send data the client did not have cached before anything which depends on it
+        DeltaSync.sendMissingEntries(playerMP);
+
         // Send crafting items packets to correct for registry changes
         SilentGear.LOGGER.debug("Sending materials craftin item correction packet");
         Network.channel.sendTo(new SyncMaterialCraftingItemsPacket(MaterialManager.getValues()), playerMP.connection.netManager, NetworkDirection.PLAY_TO_CLIENT);
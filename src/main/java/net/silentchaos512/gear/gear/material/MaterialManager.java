@@ -1,15 +1,19 @@
 package net.silentchaos512.gear.gear.material;
 
+import com.google.common.base.Suppliers;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.gson.*;
+import com.mojang.datafixers.util.Pair;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.item.ItemStack;
-import net.minecraft.resources.IResource;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.profiler.IProfiler;
+import net.minecraft.resources.IFutureReloadListener;
 import net.minecraft.resources.IResourceManager;
-import net.minecraft.resources.IResourceManagerReloadListener;
-import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.IFormattableTextComponent;
 import net.minecraft.util.text.ITextComponent;
@@ -19,58 +23,86 @@ import net.minecraftforge.common.crafting.CraftingHelper;
 import net.minecraftforge.fml.network.NetworkEvent;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.material.IMaterial;
+import net.silentchaos512.gear.api.part.PartType;
+import net.silentchaos512.gear.crafting.recipe.GearRecipeMemo;
 import net.silentchaos512.gear.network.SyncMaterialsPacket;
+import net.silentchaos512.gear.util.GearGenerator;
+import net.silentchaos512.gear.util.IngredientIndex;
+import net.silentchaos512.gear.util.JsonFileLoader;
+import net.silentchaos512.gear.util.PartContributionCache;
 import net.silentchaos512.gear.util.TextUtil;
-import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("deprecation")
-public class MaterialManager implements IResourceManagerReloadListener {
+public class MaterialManager implements IFutureReloadListener {
     public static final MaterialManager INSTANCE = new MaterialManager();
 
     private static final Gson GSON = (new GsonBuilder()).disableHtmlEscaping().create();
     public static final Marker MARKER = MarkerManager.getMarker("MaterialManager");
 
     private static final String DATA_PATH = "silentgear_materials";
-    private static final Map<ResourceLocation, IMaterial> MAP = Collections.synchronizedMap(new LinkedHashMap<>());
+    // Immutable, replaced as a whole on reload or sync so readers never need to lock
+    private static volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
     private static final Collection<String> ERROR_LIST = new ArrayList<>();
     private static final Collection<String> INGREDIENT_CONFLICT_LIST = new ArrayList<>();
+    // Lazily rebuilt after data, crafting items or tags change
+    private static final IngredientIndex.Cached<IMaterial> INGREDIENT_INDEX = new IngredientIndex.Cached<>(index -> {
+        for (IMaterial material : getValues()) {
+            index.add(material.getIngredient(), material);
+        }
+    });
+    private static final IngredientIndex.Cached<Pair<IMaterial, PartType>> PART_SUBSTITUTE_INDEX = new IngredientIndex.Cached<>(index -> {
+        for (IMaterial material : getValues()) {
+            if (material.hasPartSubstitutes()) {
+                for (PartType partType : PartType.getValues()) {
+                    Optional<Ingredient> ingredient = material.getPartSubstitute(partType);
+                    if (ingredient.isPresent()) {
+                        index.add(ingredient.get(), Pair.of(material, partType));
+                    }
+                }
+            }
+        }
+    });
 
     @Override
-    public void onResourceManagerReload(IResourceManager resourceManager) {
-        Collection<ResourceLocation> resources = resourceManager.getAllResourceLocations(DATA_PATH, s -> s.endsWith(".json"));
-        if (resources.isEmpty()) return;
+    public CompletableFuture<Void> reload(IStage stage, IResourceManager resourceManager, IProfiler preparationsProfiler, IProfiler reloadProfiler, Executor backgroundExecutor, Executor gameExecutor) {
+        return JsonFileLoader.loadAll(resourceManager, GSON, backgroundExecutor, DATA_PATH)
+                .thenCompose(stage::markCompleteAwaitingOthers)
+                .thenAcceptAsync(MaterialManager::apply, gameExecutor);
+    }
 
+    private static void apply(List<JsonFileLoader.ParsedFile> files) {
+        if (files.isEmpty()) return;
+
+        long startTime = System.nanoTime();
         Multimap<String, IMaterial> ingredientConflicts = HashMultimap.create();
 
-        synchronized (MAP) {
-            MAP.clear();
+        Map<ResourceLocation, IMaterial> map = new LinkedHashMap<>();
+        synchronized (ERROR_LIST) {
             ERROR_LIST.clear();
             SilentGear.LOGGER.info(MARKER, "Reloading material files");
 
-            for (ResourceLocation id : resources) {
-                String path = id.getPath().substring(DATA_PATH.length() + 1, id.getPath().length() - ".json".length());
-                ResourceLocation name = new ResourceLocation(id.getNamespace(), path);
-
-                String packName = "ERROR";
-                try (IResource iresource = resourceManager.getResource(id)) {
-                    packName = iresource.getPackName();
-                    JsonObject json = JSONUtils.fromJson(GSON, IOUtils.toString(iresource.getInputStream(), StandardCharsets.UTF_8), JsonObject.class);
+            for (JsonFileLoader.ParsedFile file : files) {
+                ResourceLocation name = file.getName();
+                String packName = file.getPackName();
+                try {
+                    JsonObject json = file.readJson();
                     if (json == null) {
                         SilentGear.LOGGER.error(MARKER, "Could not load material {} as it's null or empty", name);
                     } else if (!CraftingHelper.processConditions(json, "conditions")) {
                         SilentGear.LOGGER.info(MARKER, "Skipping loading material {} as its conditions were not met", name);
                     } else {
                         IMaterial material = MaterialSerializers.deserialize(name, packName, json);
-                        MAP.put(material.getId(), material);
+                        map.put(material.getId(), material);
                         addIngredientChecks(ingredientConflicts, material, json);
                     }
                 } catch (IllegalArgumentException | JsonParseException ex) {
@@ -83,7 +115,13 @@ public class MaterialManager implements IResourceManagerReloadListener {
             }
         }
 
+        snapshot = new Snapshot(map);
         checkForIngredientConflicts(ingredientConflicts);
+        invalidateIngredientIndex();
+        PartContributionCache.invalidateAll();
+        GearRecipeMemo.invalidateAll();
+        GearGenerator.invalidatePools();
+        SilentGear.LOGGER.info(MARKER, "Registered {} materials in {} ms", map.size(), JsonFileLoader.getMillisSince(startTime));
     }
 
     private static void addIngredientChecks(Multimap<String, IMaterial> map, IMaterial material, JsonObject json) {
@@ -112,71 +150,79 @@ public class MaterialManager implements IResourceManagerReloadListener {
     }
 
     public static List<IMaterial> getValues(boolean includeChildren) {
-        synchronized (MAP) {
-            List<IMaterial> list = new ArrayList<>();
-            for (IMaterial m : MAP.values()) {
-                if (includeChildren || m.getParent() == null) {
-                    list.add(m);
-                }
-            }
-            return list;
-        }
+        Snapshot snap = snapshot;
+        return includeChildren ? snap.values : snap.getHierarchy().roots;
     }
 
     public static List<IMaterial> getChildren(IMaterial material) {
-        synchronized (MAP) {
-            List<IMaterial> list = new ArrayList<>();
-            for (IMaterial m : MAP.values()) {
-                if (m.getParent() == material) {
-                    list.add(m);
-                }
-            }
-            return list;
-        }
+        return snapshot.getHierarchy().children.get(material.getId());
     }
 
     @Nullable
     public static IMaterial get(@Nullable ResourceLocation id) {
         if (id == null) return null;
-
-        synchronized (MAP) {
-            return MAP.get(id);
-        }
+        return snapshot.map.get(id);
     }
 
     @Nullable
     public static IMaterial from(ItemStack stack) {
         if (stack.isEmpty()) return null;
 
-        for (IMaterial material : getValues()) {
-            if (material.getIngredient().test(stack)) {
-                return material;
-            }
-        }
+        return INGREDIENT_INDEX.get().get(stack);
+    }
+
+    /**
+     * Finds a material with a part substitute matching the stack.
+     *
+     * @param stack The possible part substitute
+     * @return The material and part type of the substitute, or null if the stack is not a
+     * substitute for any part
+     */
+    @Nullable
+    public static Pair<IMaterial, PartType> getPartSubstitute(ItemStack stack) {
+        if (stack.isEmpty()) return null;
 
-        return null;
+        return PART_SUBSTITUTE_INDEX.get().get(stack);
+    }
+
+    /**
+     * Discards the crafting item and part substitute indexes. They will be rebuilt on the next
+     * lookup. Call this any time material ingredients may have changed, including tag reloads.
+     */
+    public static void invalidateIngredientIndex() {
+        INGREDIENT_INDEX.invalidate();
+        PART_SUBSTITUTE_INDEX.invalidate();
     }
 
     public static void handleSyncPacket(SyncMaterialsPacket msg, Supplier<NetworkEvent.Context> ctx) {
-        synchronized (MAP) {
-            Map<ResourceLocation, IMaterial> oldMaterials = ImmutableMap.copyOf(MAP);
-            MAP.clear();
-            for (IMaterial mat : msg.getMaterials()) {
-                mat.retainData(oldMaterials.get(mat.getId()));
-                MAP.put(mat.getId(), mat);
+        Map<ResourceLocation, IMaterial> oldMaterials = snapshot.map;
+        Map<ResourceLocation, IMaterial> map = new LinkedHashMap<>();
+        for (IMaterial mat : msg.getMaterials()) {
+            IMaterial old = oldMaterials.get(mat.getId());
+            // Delta sync applies cached entries early, then again with the complete list
+            if (old != mat) {
+                mat.retainData(old);
             }
-            SilentGear.LOGGER.info("Read {} materials from server", MAP.size());
+            map.put(mat.getId(), mat);
         }
+        snapshot = new Snapshot(map);
+        SilentGear.LOGGER.info("Read {} materials from server", map.size());
+        invalidateIngredientIndex();
+        PartContributionCache.invalidateAll();
+        GearRecipeMemo.invalidateAll();
+        GearGenerator.invalidatePools();
         ctx.get().setPacketHandled(true);
     }
 
     public static Collection<ITextComponent> getErrorMessages(ServerPlayerEntity player) {
         Collection<ITextComponent> ret = new ArrayList<>();
-        if (!ERROR_LIST.isEmpty()) {
-            String listStr = String.join(", ", ERROR_LIST);
-            ret.add(TextUtil.withColor(new StringTextComponent("[Silent Gear] The following materials failed to load, check your log file:"),
-                    TextFormatting.RED));
-            ret.add(new StringTextComponent(listStr));
+        synchronized (ERROR_LIST) {
+            if (!ERROR_LIST.isEmpty()) {
+                String listStr = String.join(", ", ERROR_LIST);
+                ret.add(TextUtil.withColor(new StringTextComponent("[Silent Gear] The following materials failed to load, check your log file:"),
+                        TextFormatting.RED));
+                ret.add(new StringTextComponent(listStr));
+            }
         }
         INGREDIENT_CONFLICT_LIST.forEach(line -> {
             IFormattableTextComponent text = TextUtil.withColor(new StringTextComponent(line), TextFormatting.YELLOW);
@@ -184,4 +230,40 @@ public class MaterialManager implements IResourceManagerReloadListener {
         });
         return ret;
     }
+
+    private static final class Snapshot {
+        private final ImmutableMap<ResourceLocation, IMaterial> map;
+        private final ImmutableList<IMaterial> values;
+        // Parents are resolved through the published snapshot, so the hierarchy is built on first use
+        private final Supplier<Hierarchy> hierarchy = Suppliers.memoize(() -> new Hierarchy(this));
+
+        private Snapshot(Map<ResourceLocation, IMaterial> materials) {
+            this.map = ImmutableMap.copyOf(materials);
+            this.values = this.map.values().asList();
+        }
+
+        private Hierarchy getHierarchy() {
+            return hierarchy.get();
+        }
+    }
+
+    private static final class Hierarchy {
+        private final ImmutableList<IMaterial> roots;
+        private final ImmutableListMultimap<ResourceLocation, IMaterial> children;
+
+        private Hierarchy(Snapshot snapshot) {
+            ImmutableList.Builder<IMaterial> rootsBuilder = ImmutableList.builder();
+            ImmutableListMultimap.Builder<ResourceLocation, IMaterial> childrenBuilder = ImmutableListMultimap.builder();
+            for (IMaterial material : snapshot.values) {
+                IMaterial parent = material.getParent();
+                if (parent == null) {
+                    rootsBuilder.add(material);
+                } else {
+                    childrenBuilder.put(parent.getId(), material);
+                }
+            }
+            this.roots = rootsBuilder.build();
+            this.children = childrenBuilder.build();
+        }
+    }
 }
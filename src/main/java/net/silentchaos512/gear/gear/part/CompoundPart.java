@@ -24,8 +24,8 @@ import net.silentchaos512.gear.client.util.ColorUtils;
 import net.silentchaos512.gear.gear.material.MaterialInstance;
 import net.silentchaos512.gear.gear.material.MaterialManager;
 import net.silentchaos512.gear.item.CompoundPartItem;
+import net.silentchaos512.gear.util.GearGenerator;
 import net.silentchaos512.gear.util.GearHelper;
-import net.silentchaos512.gear.util.SynergyUtils;
 import net.silentchaos512.gear.util.TraitHelper;
 import net.silentchaos512.utils.MathUtils;
 
@@ -34,12 +34,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class CompoundPart extends AbstractGearPart {
     private GearType gearType = GearType.ALL;
     private PartType partType;
+    // Resolved on first use, parts are replaced on every reload
+    @Nullable private CompoundPartItem randomizeItem;
+    private boolean randomizeItemResolved;
 
     public CompoundPart(ResourceLocation name) {
         super(name);
@@ -124,8 +128,23 @@ public class CompoundPart extends AbstractGearPart {
 
     @Override
     public Collection<StatInstance> getStatModifiers(IPartData part, PartType partType, StatGearKey key, ItemStack gear) {
+        return getStatModifiers(new PartEvaluationContext(part, partType, gear), key);
+    }
+
+    /**
+     * Gets stat modifiers using an existing evaluation context. When getting modifiers for many
+     * stats, sharing the context means materials are read and synergy is calculated only once.
+     *
+     * @param context The part evaluation context
+     * @param key     The stat and gear type
+     * @return The stat modifiers, with synergy applied if relevant
+     */
+    public Collection<StatInstance> getStatModifiers(PartEvaluationContext context, StatGearKey key) {
+        IPartData part = context.getPart();
+        PartType partType = context.getPartType();
+
         // Get the materials and all the stat modifiers they provide for this stat
-        List<MaterialInstance> materials = getMaterials(part);
+        List<MaterialInstance> materials = context.getMaterials();
         List<StatInstance> statMods = materials.stream()
                 .flatMap(m -> m.getStatModifiers(partType, key).stream())
                 .collect(Collectors.toList());
@@ -155,7 +174,7 @@ public class CompoundPart extends AbstractGearPart {
 
         // Synergy
         if (key.getStat().doesSynergyApply()) {
-            final float synergy = SynergyUtils.getSynergy(this.partType, materials, getTraits(part, partType, gearType, gear));
+            final float synergy = context.getSynergy();
             if (!MathUtils.floatsEqual(synergy, 1.0f)) {
                 final float multi = synergy - 1f;
                 for (int i = 0; i < ret.size(); ++i) {
@@ -186,8 +205,13 @@ public class CompoundPart extends AbstractGearPart {
 
     @Override
     public Collection<TraitInstance> getTraits(IPartData part, PartType partType, GearType gearType, ItemStack gear) {
-        List<TraitInstance> ret = new ArrayList<>(super.getTraits(part, partType, gearType, gear));
-        List<MaterialInstance> materials = getMaterials(part);
+        return getTraits(new PartEvaluationContext(part, partType, gear), gearType);
+    }
+
+    Collection<TraitInstance> getTraits(PartEvaluationContext context, GearType gearType) {
+        ItemStack gear = context.getGear();
+        List<TraitInstance> ret = new ArrayList<>(super.getTraits(context.getPart(), context.getPartType(), gearType, gear));
+        List<MaterialInstance> materials = context.getMaterials();
 
         TraitHelper.getTraits(materials, this.partType, gear).forEach((trait, level) -> {
             TraitInstance inst = TraitInstance.of(trait, level);
@@ -206,49 +230,64 @@ public class CompoundPart extends AbstractGearPart {
 
     @Override
     public PartData randomizeData(GearType gearType, int tier) {
-        for (ItemStack stack : this.getIngredient().getMatchingStacks()) {
-            if (stack.getItem() instanceof CompoundPartItem) {
-                int materialCount = getRandomMaterialCount(partType);
-                List<MaterialInstance> materials = getRandomMaterials(gearType, materialCount, tier);
-                ItemStack craftingItem = ((CompoundPartItem) stack.getItem()).create(materials);
-                return PartData.of(this, craftingItem);
-            }
+        return randomizeData(gearType, tier, SilentGear.RANDOM);
+    }
+
+    @Override
+    public PartData randomizeData(GearType gearType, int tier, Random random) {
+        CompoundPartItem item = getRandomizeItem();
+        if (item != null) {
+            int materialCount = getRandomMaterialCount(partType, random);
+            List<MaterialInstance> materials = getRandomMaterials(gearType, materialCount, tier, random);
+            ItemStack craftingItem = item.create(materials);
+            return PartData.of(this, craftingItem);
         }
         return super.randomizeData(gearType, tier);
     }
 
+    @Nullable
+    private CompoundPartItem getRandomizeItem() {
+        if (!this.randomizeItemResolved) {
+            for (ItemStack stack : this.getIngredient().getMatchingStacks()) {
+                if (stack.getItem() instanceof CompoundPartItem) {
+                    this.randomizeItem = (CompoundPartItem) stack.getItem();
+                    break;
+                }
+            }
+            this.randomizeItemResolved = true;
+        }
+        return this.randomizeItem;
+    }
+
     @Override
     public boolean canAddToGear(ItemStack gear, PartData part) {
         GearType type = GearHelper.getType(gear);
         return type.matches(this.gearType);
     }
 
-    private static int getRandomMaterialCount(PartType partType) {
+    private static int getRandomMaterialCount(PartType partType, Random random) {
         if (partType == PartType.MAIN) {
             int ret = 1;
             for (int i = 0; i < 3; ++i) {
-                if (SilentGear.RANDOM.nextInt(100) < 70 - 30 * i)
+                if (random.nextInt(100) < 70 - 30 * i)
                     ++ret;
                 else
                     break;
             }
             return ret;
         }
-        return SilentGear.RANDOM.nextInt(2) + 1;
+        return random.nextInt(2) + 1;
     }
 
-    private List<MaterialInstance> getRandomMaterials(GearType gearType, int count, int tier) {
+    private List<MaterialInstance> getRandomMaterials(GearType gearType, int count, int tier, Random random) {
         // Excludes children, will select a random child material (if appropriate) below
-        List<IMaterial> matsOfTier = MaterialManager.getValues(tier == 0).stream()
-                .filter(m -> tier < 0 || tier == m.getTier(this.partType))
-                .filter(m -> m.allowedInPart(this.partType) && m.isCraftingAllowed(MaterialInstance.of(m), this.partType, gearType))
-                .collect(Collectors.toList());
+        List<IMaterial> matsOfTier = GearGenerator.getMaterialPool(gearType, this.partType, tier);
 
         if (!matsOfTier.isEmpty()) {
             List<MaterialInstance> ret = new ArrayList<>();
             for (int i = 0; i < count; ++i) {
-                IMaterial material = matsOfTier.get(SilentGear.RANDOM.nextInt(matsOfTier.size()));
-                ret.add(getRandomChildMaterial(material));
+                IMaterial material = matsOfTier.get(random.nextInt(matsOfTier.size()));
+                ret.add(getRandomChildMaterial(material, random));
             }
             return ret;
         }
@@ -259,16 +298,16 @@ public class CompoundPart extends AbstractGearPart {
         }
 
         // No materials of tier? Select randoms of any tier.
-        return getRandomMaterials(gearType, count, -1);
+        return getRandomMaterials(gearType, count, -1, random);
     }
 
-    private static MaterialInstance getRandomChildMaterial(IMaterial material) {
+    private static MaterialInstance getRandomChildMaterial(IMaterial material, Random random) {
         // Selects a random child of the given material, or the material itself if it doesn't have any
         List<IMaterial> children = MaterialManager.getChildren(material);
         if (children.isEmpty()) {
             return MaterialInstance.of(material);
         }
-        return MaterialInstance.of(children.get(SilentGear.RANDOM.nextInt(children.size())));
+        return MaterialInstance.of(children.get(random.nextInt(children.size())));
     }
 
     @Override
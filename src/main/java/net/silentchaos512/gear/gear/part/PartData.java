@@ -1,8 +1,8 @@
 package net.silentchaos512.gear.gear.part;
 
+import com.mojang.datafixers.util.Pair;
 import net.minecraft.inventory.CraftingInventory;
 import net.minecraft.item.ItemStack;
-import net.minecraft.item.crafting.Ingredient;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.ITextComponent;
@@ -84,20 +84,14 @@ public final class PartData implements IPartData { // TODO: move to api.part pac
 
     @Nullable
     private static PartData fromMaterialSubstitute(ItemStack stack) {
-        for (IMaterial material : MaterialManager.getValues()) {
-            if (material.hasPartSubstitutes()) {
-                for (PartType partType : PartType.getValues()) {
-                    Optional<Ingredient> ingredient = material.getPartSubstitute(partType);
-
-                    if (ingredient.isPresent() && ingredient.get().test(stack)) {
-                        Optional<? extends CompoundPartItem> item = partType.getCompoundPartItem(GearType.PART);
-
-                        if (item.isPresent()) {
-                            ItemStack result = item.get().create(MaterialInstance.of(material));
-                            return PartData.from(result, false);
-                        }
-                    }
-                }
+        Pair<IMaterial, PartType> substitute = MaterialManager.getPartSubstitute(stack);
+
+        if (substitute != null) {
+            Optional<? extends CompoundPartItem> item = substitute.getSecond().getCompoundPartItem(GearType.PART);
+
+            if (item.isPresent()) {
+                ItemStack result = item.get().create(MaterialInstance.of(substitute.getFirst()));
+                return PartData.from(result, false);
             }
         }
 
@@ -0,0 +1,92 @@
+package net.silentchaos512.gear.gear.part;
+
+import net.minecraft.item.ItemStack;
+import net.silentchaos512.gear.api.part.IGearPart;
+import net.silentchaos512.gear.api.part.IPartData;
+import net.silentchaos512.gear.api.part.PartType;
+import net.silentchaos512.gear.api.stats.StatInstance;
+import net.silentchaos512.gear.api.traits.TraitInstance;
+import net.silentchaos512.gear.api.util.StatGearKey;
+import net.silentchaos512.gear.gear.material.MaterialInstance;
+import net.silentchaos512.gear.util.SynergyUtils;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds values which are needed repeatedly while evaluating a single part, such as when getting
+ * modifiers for every stat. The part's materials are read once, and the merged material traits and
+ * synergy are calculated once on first use, instead of once per stat.
+ * <p>
+ * Contexts are not cached anywhere. Create one, use it for a single evaluation, then let it go.
+ */
+public final class PartEvaluationContext {
+    private final IPartData part;
+    private final PartType partType;
+    private final ItemStack gear;
+    @Nullable private List<MaterialInstance> materials;
+    @Nullable private Collection<TraitInstance> traits;
+    private float synergy = Float.NaN;
+
+    public PartEvaluationContext(IPartData part, ItemStack gear) {
+        this(part, part.getType(), gear);
+    }
+
+    public PartEvaluationContext(IPartData part, PartType partType, ItemStack gear) {
+        this.part = part;
+        this.partType = partType;
+        this.gear = gear;
+    }
+
+    public IPartData getPart() {
+        return part;
+    }
+
+    public PartType getPartType() {
+        return partType;
+    }
+
+    public ItemStack getGear() {
+        return gear;
+    }
+
+    public List<MaterialInstance> getMaterials() {
+        if (materials == null) {
+            IGearPart gearPart = part.get();
+            materials = gearPart != null ? gearPart.getMaterials(part) : Collections.emptyList();
+        }
+        return materials;
+    }
+
+    /**
+     * Gets the part's traits, including traits merged from its materials.
+     *
+     * @return The part's traits
+     */
+    public Collection<TraitInstance> getTraits() {
+        if (traits == null) {
+            if (part.get() instanceof CompoundPart) {
+                traits = ((CompoundPart) part.get()).getTraits(this, part.getGearType());
+            } else {
+                traits = part.getTraits(partType, part.getGearType(), gear);
+            }
+        }
+        return traits;
+    }
+
+    public float getSynergy() {
+        if (Float.isNaN(synergy)) {
+            synergy = SynergyUtils.getSynergy(partType, getMaterials(), getTraits());
+        }
+        return synergy;
+    }
+
+    public Collection<StatInstance> getStatModifiers(StatGearKey key) {
+        if (part.get() instanceof CompoundPart) {
+            return ((CompoundPart) part.get()).getStatModifiers(this, key);
+        }
+        return part.getStatModifiers(partType, key, gear);
+    }
+}
@@ -1,6 +1,7 @@
 package net.silentchaos512.gear.gear.part;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -8,10 +9,9 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.item.ItemStack;
-import net.minecraft.resources.IResource;
+import net.minecraft.profiler.IProfiler;
+import net.minecraft.resources.IFutureReloadListener;
 import net.minecraft.resources.IResourceManager;
-import net.minecraft.resources.IResourceManagerReloadListener;
-import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.StringTextComponent;
@@ -21,59 +21,74 @@ import net.minecraftforge.fml.network.NetworkEvent;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.part.IGearPart;
 import net.silentchaos512.gear.api.part.PartType;
+import net.silentchaos512.gear.crafting.recipe.GearRecipeMemo;
 import net.silentchaos512.gear.network.SyncGearPartsPacket;
-import org.apache.commons.io.IOUtils;
+import net.silentchaos512.gear.util.GearGenerator;
+import net.silentchaos512.gear.util.GearView;
+import net.silentchaos512.gear.util.IngredientIndex;
+import net.silentchaos512.gear.util.JsonFileLoader;
+import net.silentchaos512.gear.util.PartContributionCache;
+import net.silentchaos512.gear.util.TraitTickScheduler;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 @SuppressWarnings("deprecation")
-public final class PartManager implements IResourceManagerReloadListener {
+public final class PartManager implements IFutureReloadListener {
     public static final PartManager INSTANCE = new PartManager();
 
     public static final Marker MARKER = MarkerManager.getMarker("PartManager");
 
     private static final String DATA_PATH = "silentgear_parts";
     private static final String DATA_PATH_OLD = "silentgear/parts";
-    private static final Map<ResourceLocation, IGearPart> MAP = Collections.synchronizedMap(new LinkedHashMap<>());
-    private static int highestMainPartTier = 0;
+    // Immutable, replaced as a whole on reload or sync so readers never need to lock
+    private static volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
     private static final Collection<String> ERROR_LIST = new ArrayList<>();
+    // Lazily rebuilt after data, crafting items or tags change
+    private static final IngredientIndex.Cached<IGearPart> INGREDIENT_INDEX = new IngredientIndex.Cached<>(index -> {
+        for (IGearPart part : getValues()) {
+            index.add(part.getIngredient(), part);
+        }
+    });
 
     private PartManager() {}
 
     public static int getHighestMainPartTier() {
-        return highestMainPartTier;
+        return snapshot.highestTier;
     }
 
     @Override
-    public void onResourceManagerReload(IResourceManager resourceManager) {
+    public CompletableFuture<Void> reload(IStage stage, IResourceManager resourceManager, IProfiler preparationsProfiler, IProfiler reloadProfiler, Executor backgroundExecutor, Executor gameExecutor) {
         Gson gson = (new GsonBuilder()).setPrettyPrinting().disableHtmlEscaping().create();
-        Collection<ResourceLocation> resources = getAllResources(resourceManager);
-        if (resources.isEmpty()) return;
+        return JsonFileLoader.loadAll(resourceManager, gson, backgroundExecutor, DATA_PATH, DATA_PATH_OLD)
+                .thenCompose(stage::markCompleteAwaitingOthers)
+                .thenAcceptAsync(PartManager::apply, gameExecutor);
+    }
 
-        synchronized (MAP) {
-            MAP.clear();
+    private static void apply(List<JsonFileLoader.ParsedFile> files) {
+        if (files.isEmpty()) return;
+
+        long startTime = System.nanoTime();
+        Map<ResourceLocation, IGearPart> map = new LinkedHashMap<>();
+        synchronized (ERROR_LIST) {
             ERROR_LIST.clear();
             SilentGear.LOGGER.info(MARKER, "Reloading part files");
 
-            for (ResourceLocation id : resources) {
-                String path = id.getPath().substring(DATA_PATH.length() + 1, id.getPath().length() - ".json".length());
-                ResourceLocation name = new ResourceLocation(id.getNamespace(), path);
-
-                String packName = "ERROR";
-                try (IResource iresource = resourceManager.getResource(id)) {
-                    packName = iresource.getPackName();
+            for (JsonFileLoader.ParsedFile file : files) {
+                ResourceLocation name = file.getName();
+                String packName = file.getPackName();
+                try {
                     if (SilentGear.LOGGER.isTraceEnabled()) {
-                        SilentGear.LOGGER.trace(MARKER, "Found likely part file: {}, trying to read as part {}", id, name);
+                        SilentGear.LOGGER.trace(MARKER, "Found likely part file: {}, trying to read as part {}", file.getFile(), name);
                     }
 
-                    JsonObject json = JSONUtils.fromJson(gson, IOUtils.toString(iresource.getInputStream(), StandardCharsets.UTF_8), JsonObject.class);
+                    JsonObject json = file.readJson();
                     if (json == null) {
                         SilentGear.LOGGER.error(MARKER, "Could not load part {} as it's null or empty", name);
                     } else if (!CraftingHelper.processConditions(json, "conditions")) {
@@ -81,10 +96,9 @@ public final class PartManager implements IResourceManagerReloadListener {
                     } else {
                         IGearPart part = PartSerializers.deserialize(name, json);
                         if (part instanceof AbstractGearPart) {
-                            ((AbstractGearPart) part).packName = iresource.getPackName();
+                            ((AbstractGearPart) part).packName = packName;
                         }
-                        addPart(part);
-                        highestMainPartTier = Math.max(highestMainPartTier, part.getTier());
+                        addPart(map, part);
                     }
                 } catch (IllegalArgumentException | JsonParseException ex) {
                     SilentGear.LOGGER.error(MARKER, "Parsing error loading gear part {}", name, ex);
@@ -95,35 +109,42 @@ public final class PartManager implements IResourceManagerReloadListener {
                 }
             }
 
-            SilentGear.LOGGER.info(MARKER, "Registered {} parts", MAP.size());
+            SilentGear.LOGGER.info(MARKER, "Registered {} parts in {} ms", map.size(), JsonFileLoader.getMillisSince(startTime));
         }
-    }
 
-    private static Collection<ResourceLocation> getAllResources(IResourceManager resourceManager) {
-        Collection<ResourceLocation> list = new ArrayList<>();
-        list.addAll(resourceManager.getAllResourceLocations(DATA_PATH, s -> s.endsWith(".json")));
-        list.addAll(resourceManager.getAllResourceLocations(DATA_PATH_OLD, s -> s.endsWith(".json")));
-        return list;
+        snapshot = new Snapshot(map);
+
+        GearView.invalidateAll();
+        TraitTickScheduler.invalidateAll();
+        PartContributionCache.invalidateAll();
+        GearRecipeMemo.invalidateAll();
+        GearGenerator.invalidatePools();
+        invalidateIngredientIndex();
     }
 
-    private static void addPart(IGearPart part) {
-        if (MAP.containsKey(part.getId())) {
+    private static void addPart(Map<ResourceLocation, IGearPart> map, IGearPart part) {
+        if (map.containsKey(part.getId())) {
             throw new IllegalStateException("Duplicate gear part " + part.getId());
         } else {
-            MAP.put(part.getId(), part);
+            map.put(part.getId(), part);
         }
     }
 
     public static Collection<IGearPart> getValues() {
-        synchronized (MAP) {
-            return MAP.values();
-        }
+        return snapshot.map.values();
     }
 
     public static List<IGearPart> getPartsOfType(PartType type) {
-        return getValues().stream()
-                .filter(part -> part.getType() == type)
-                .collect(Collectors.toList());
+        return snapshot.byType.get(type);
+    }
+
+    /**
+     * Gets all parts which should be shown to players, such as in the parts GUI.
+     *
+     * @return Immutable list of visible parts
+     */
+    public static List<IGearPart> getVisibleParts() {
+        return snapshot.visible;
     }
 
     @Deprecated
@@ -138,9 +159,7 @@ public final class PartManager implements IResourceManagerReloadListener {
 
     @Nullable
     public static IGearPart get(ResourceLocation id) {
-        synchronized (MAP) {
-            return MAP.get(id);
-        }
+        return snapshot.map.get(id);
     }
 
     @Nullable
@@ -153,38 +172,75 @@ public final class PartManager implements IResourceManagerReloadListener {
     public static IGearPart from(ItemStack stack) {
         if (stack.isEmpty()) return null;
 
-        // We can't reliable keep an IItemProvider -> IGearPart map anymore
-        for (IGearPart part : getValues()) {
-            if (part.getIngredient().test(stack)) {
-                return part;
-            }
-        }
+        return INGREDIENT_INDEX.get().get(stack);
+    }
 
-        return null;
+    /**
+     * Discards the crafting item index. It will be rebuilt on the next lookup. Call this any time
+     * part ingredients may have changed, including tag reloads.
+     */
+    public static void invalidateIngredientIndex() {
+        INGREDIENT_INDEX.invalidate();
     }
 
     public static void handlePartSyncPacket(SyncGearPartsPacket packet, Supplier<NetworkEvent.Context> context) {
-        synchronized (MAP) {
-            Map<ResourceLocation, IGearPart> oldParts = ImmutableMap.copyOf(MAP);
-            MAP.clear();
-            for (IGearPart part : packet.getParts()) {
-                part.retainData(oldParts.get(part.getId()));
-                MAP.put(part.getId(), part);
+        Map<ResourceLocation, IGearPart> oldParts = snapshot.map;
+        Map<ResourceLocation, IGearPart> map = new LinkedHashMap<>();
+        for (IGearPart part : packet.getParts()) {
+            IGearPart old = oldParts.get(part.getId());
+            // Delta sync applies cached entries early, then again with the complete list
+            if (old != part) {
+                part.retainData(old);
             }
-            SilentGear.LOGGER.info("Read {} parts from server", MAP.size());
+            map.put(part.getId(), part);
         }
+        snapshot = new Snapshot(map);
+        SilentGear.LOGGER.info("Read {} parts from server", map.size());
+        GearView.invalidateAll();
+        TraitTickScheduler.invalidateAll();
+        PartContributionCache.invalidateAll();
+        GearRecipeMemo.invalidateAll();
+        GearGenerator.invalidatePools();
+        invalidateIngredientIndex();
         context.get().setPacketHandled(true);
     }
 
     public static Collection<ITextComponent> getErrorMessages(ServerPlayerEntity player) {
-        if (!ERROR_LIST.isEmpty()) {
-            String listStr = String.join(", ", ERROR_LIST);
-            return ImmutableList.of(
-                    new StringTextComponent("[Silent Gear] The following gear parts failed to load, check your log file:")
-                            .mergeStyle(TextFormatting.RED),
-                    new StringTextComponent(listStr)
-            );
+        synchronized (ERROR_LIST) {
+            if (!ERROR_LIST.isEmpty()) {
+                String listStr = String.join(", ", ERROR_LIST);
+                return ImmutableList.of(
+                        new StringTextComponent("[Silent Gear] The following gear parts failed to load, check your log file:")
+                                .mergeStyle(TextFormatting.RED),
+                        new StringTextComponent(listStr)
+                );
+            }
         }
         return ImmutableList.of();
     }
+
+    private static final class Snapshot {
+        private final ImmutableMap<ResourceLocation, IGearPart> map;
+        private final ImmutableListMultimap<PartType, IGearPart> byType;
+        private final ImmutableList<IGearPart> visible;
+        private final int highestTier;
+
+        private Snapshot(Map<ResourceLocation, IGearPart> parts) {
+            this.map = ImmutableMap.copyOf(parts);
+
+            ImmutableListMultimap.Builder<PartType, IGearPart> byTypeBuilder = ImmutableListMultimap.builder();
+            ImmutableList.Builder<IGearPart> visibleBuilder = ImmutableList.builder();
+            int tier = 0;
+            for (IGearPart part : this.map.values()) {
+                byTypeBuilder.put(part.getType(), part);
+                if (part.isVisible()) {
+                    visibleBuilder.add(part);
+                }
+                tier = Math.max(tier, part.getTier());
+            }
+            this.byType = byTypeBuilder.build();
+            this.visible = visibleBuilder.build();
+            this.highestTier = tier;
+        }
+    }
 }
@@ -1,8 +1,12 @@
 package net.silentchaos512.gear.gear.trait;
 
 import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.ItemUseContext;
@@ -12,6 +16,8 @@ import net.minecraft.tags.ITag;
 import net.minecraft.util.*;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.IChunk;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.traits.ITraitSerializer;
@@ -68,8 +74,9 @@ public class BlockFillerTrait extends SimpleTrait {
         int rangeY = shouldConstrain(context, Direction.Axis.Y) ? 0 : fillRangeY;
         int rangeZ = shouldConstrain(context, Direction.Axis.Z) ? 0 : fillRangeZ;
 
-        // Simulates replacement to get replace count for durability cost
-        int replaceCount = replaceBlocks(context, stack, world, center, rangeX, rangeY, rangeZ, true);
+        // Plan the replacement first to get replace count for durability cost
+        LongList plan = planFill(world, center, rangeX, rangeY, rangeZ);
+        int replaceCount = plan.size();
         int durabilityCost = Math.round(damageOnUse * replaceCount);
         boolean hasEnoughDurability = durabilityCost < 1 || stack.getDamage() < stack.getMaxDamage() - durabilityCost;
 
@@ -80,7 +87,7 @@ public class BlockFillerTrait extends SimpleTrait {
 
         if (hasEnoughDurability) {
             // Actually replace the blocks
-            replaceBlocks(context, stack, world, center, rangeX, rangeY, rangeZ, false);
+            applyFill(world, plan);
         }
 
         if (replaceCount > 0) {
@@ -102,25 +109,76 @@ public class BlockFillerTrait extends SimpleTrait {
         return ActionResultType.PASS;
     }
 
-    @SuppressWarnings("MethodWithTooManyParameters")
-    private int replaceBlocks(ItemUseContext context, ItemStack stack, World world, BlockPos center, int rangeX, int rangeY, int rangeZ, boolean simulate) {
-        int count = 0;
-        for (int x = center.getX() - rangeX; x <= center.getX() + rangeX; ++x) {
-            for (int y = center.getY() - rangeY; y <= center.getY() + rangeY; ++y) {
-                for (int z = center.getZ() - rangeZ; z <= center.getZ() + rangeZ; ++z) {
-                    BlockPos pos = new BlockPos(x, y, z);
-                    BlockState state = world.getBlockState(pos);
-
-                    if (canReplace(state) && (replaceTileEntities || world.getTileEntity(pos) == null)) {
-                        if (!simulate) {
-                            world.setBlockState(pos, fillBlock.getDefaultState(), 11);
+    /**
+     * Scans the fill area once and lists the positions of all blocks which would be replaced. The
+     * area is walked one chunk section at a time, so each chunk is looked up once, and empty
+     * sections are skipped unless air can be replaced.
+     *
+     * @return Packed positions of blocks to replace, grouped by chunk section
+     */
+    private LongList planFill(World world, BlockPos center, int rangeX, int rangeY, int rangeZ) {
+        int minX = center.getX() - rangeX;
+        int maxX = center.getX() + rangeX;
+        int minY = Math.max(center.getY() - rangeY, 0);
+        int maxY = Math.min(center.getY() + rangeY, world.getHeight() - 1);
+        int minZ = center.getZ() - rangeZ;
+        int maxZ = center.getZ() + rangeZ;
+        boolean canReplaceAir = canReplace(Blocks.AIR.getDefaultState());
+
+        LongList plan = new LongArrayList();
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; ++chunkX) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; ++chunkZ) {
+                IChunk chunk = world.getChunk(chunkX, chunkZ);
+                ChunkSection[] sections = chunk.getSections();
+
+                for (int sectionY = minY >> 4; sectionY <= maxY >> 4; ++sectionY) {
+                    if (!canReplaceAir && (sectionY >= sections.length || ChunkSection.isEmpty(sections[sectionY]))) {
+                        continue;
+                    }
+
+                    for (int x = Math.max(minX, chunkX << 4); x <= Math.min(maxX, (chunkX << 4) + 15); ++x) {
+                        for (int y = Math.max(minY, sectionY << 4); y <= Math.min(maxY, (sectionY << 4) + 15); ++y) {
+                            for (int z = Math.max(minZ, chunkZ << 4); z <= Math.min(maxZ, (chunkZ << 4) + 15); ++z) {
+                                pos.setPos(x, y, z);
+                                BlockState state = chunk.getBlockState(pos);
+
+                                if (canReplace(state) && (replaceTileEntities || !state.hasTileEntity() || world.getTileEntity(pos) == null)) {
+                                    plan.add(pos.toLong());
+                                }
+                            }
                         }
-                        ++count;
                     }
                 }
             }
         }
-        return count;
+        return plan;
+    }
+
+    /**
+     * Places the fill block at every planned position without notifying neighbors (flags 2 | 8),
+     * then sends the usual neighbor and comparator updates for each placed block once the whole
+     * batch is placed. Updates go through the world, so Forge's neighbor notify event fires and
+     * filled blocks see each other's final state.
+     */
+    private void applyFill(World world, LongList plan) {
+        BlockState fillState = fillBlock.getDefaultState();
+        LongList placed = new LongArrayList(plan.size());
+
+        for (int i = 0; i < plan.size(); ++i) {
+            long packedPos = plan.getLong(i);
+            if (world.setBlockState(BlockPos.fromLong(packedPos), fillState, 10)) {
+                placed.add(packedPos);
+            }
+        }
+
+        LongIterator iterator = placed.iterator();
+        while (iterator.hasNext()) {
+            BlockPos pos = BlockPos.fromLong(iterator.nextLong());
+            world.notifyNeighborsOfStateChange(pos, fillBlock);
+            world.updateComparatorOutputLevel(pos, fillBlock);
+        }
     }
 
     private boolean shouldConstrain(ItemUseContext context, Direction.Axis axis) {
@@ -5,7 +5,6 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.item.ItemStack;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.potion.Effect;
 import net.minecraft.potion.EffectInstance;
@@ -15,11 +14,10 @@ import net.minecraft.util.math.MathHelper;
 import net.minecraftforge.registries.ForgeRegistries;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.item.GearType;
-import net.silentchaos512.gear.api.item.ICoreArmor;
 import net.silentchaos512.gear.api.item.ICoreItem;
 import net.silentchaos512.gear.api.traits.ITraitSerializer;
 import net.silentchaos512.gear.api.traits.TraitActionContext;
-import net.silentchaos512.gear.util.TraitHelper;
+import net.silentchaos512.gear.util.EquipmentAggregate;
 import net.silentchaos512.lib.util.TimeUtils;
 import net.silentchaos512.utils.EnumUtils;
 
@@ -50,6 +48,18 @@ public final class PotionEffectTrait extends SimpleTrait {
         potions.forEach((type, list) -> applyEffects(context, gearType, type, list));
     }
 
+    @Override
+    public int getUpdateInterval() {
+        // Effects are reapplied well before they expire, so there's no need to do it every tick
+        int shortestDuration = Integer.MAX_VALUE;
+        for (List<PotionData> list : potions.values()) {
+            for (PotionData potionData : list) {
+                shortestDuration = Math.min(shortestDuration, potionData.duration);
+            }
+        }
+        return MathHelper.clamp(shortestDuration / 2, 1, 20);
+    }
+
     private void applyEffects(TraitActionContext context, GearType gearType, String type, Iterable<PotionData> effects) {
         PlayerEntity player = context.getPlayer();
         assert player != null; // checked in onUpdate
@@ -70,13 +80,7 @@ public final class PotionEffectTrait extends SimpleTrait {
     private int getSetPieceCount(String type, PlayerEntity player) {
         if (!"armor".equals(type)) return 1;
 
-        int count = 0;
-        for (ItemStack stack : player.getArmorInventoryList()) {
-            if (stack.getItem() instanceof ICoreArmor && TraitHelper.hasTrait(stack, this)) {
-                ++count;
-            }
-        }
-        return count;
+        return EquipmentAggregate.get(player).getSetPieceCount(this);
     }
 
     private static void readJson(PotionEffectTrait trait, JsonObject json) {
@@ -34,6 +34,18 @@ import java.util.stream.Collectors;
 public class SimpleTrait implements ITrait {
     public static final Serializer<SimpleTrait> SERIALIZER = new Serializer<>(Serializer.NAME, SimpleTrait::new);
 
+    // Whether a trait class overrides onUpdate, and so needs to be scheduled for updates
+    private static final ClassValue<Boolean> OVERRIDES_UPDATE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("onUpdate", TraitActionContext.class, boolean.class).getDeclaringClass() != SimpleTrait.class;
+            } catch (NoSuchMethodException ex) {
+                return true;
+            }
+        }
+    };
+
     private final ResourceLocation objId;
     private final ITraitSerializer<?> serializer;
     int maxLevel;
@@ -153,6 +165,11 @@ public class SimpleTrait implements ITrait {
     public void onUpdate(TraitActionContext context, boolean isEquipped) {
     }
 
+    @Override
+    public int getUpdateInterval() {
+        return OVERRIDES_UPDATE.get(getClass()) ? 1 : 0;
+    }
+
     @Override
     public ItemStack addLootDrops(TraitActionContext context, ItemStack stack) {
         return ItemStack.EMPTY;
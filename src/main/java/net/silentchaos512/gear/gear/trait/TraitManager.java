@@ -7,10 +7,9 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import net.minecraft.entity.player.ServerPlayerEntity;
-import net.minecraft.resources.IResource;
+import net.minecraft.profiler.IProfiler;
+import net.minecraft.resources.IFutureReloadListener;
 import net.minecraft.resources.IResourceManager;
-import net.minecraft.resources.IResourceManagerReloadListener;
-import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.StringTextComponent;
@@ -18,98 +17,127 @@ import net.minecraft.util.text.TextFormatting;
 import net.minecraftforge.fml.network.NetworkEvent;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.traits.ITrait;
+import net.silentchaos512.gear.crafting.recipe.GearRecipeMemo;
 import net.silentchaos512.gear.network.SyncTraitsPacket;
-import org.apache.commons.io.IOUtils;
+import net.silentchaos512.gear.util.EquipmentAggregate;
+import net.silentchaos512.gear.util.GearView;
+import net.silentchaos512.gear.util.JsonFileLoader;
+import net.silentchaos512.gear.util.PartContributionCache;
+import net.silentchaos512.gear.util.TraitTickScheduler;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("deprecation")
-public final class TraitManager implements IResourceManagerReloadListener {
+public final class TraitManager implements IFutureReloadListener {
     public static final TraitManager INSTANCE = new TraitManager();
 
     public static final Marker MARKER = MarkerManager.getMarker("TraitManager");
 
     private static final String DATA_PATH = "silentgear_traits";
     private static final String DATA_PATH_OLD = "silentgear/traits";
-    private static final Map<ResourceLocation, ITrait> MAP = Collections.synchronizedMap(new LinkedHashMap<>());
     private static final Collection<ResourceLocation> ERROR_LIST = new ArrayList<>();
+    // Immutable, replaced as a whole on reload or sync so readers never need to lock
+    private static volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
 
     private TraitManager() {}
 
     @Override
-    public void onResourceManagerReload(IResourceManager resourceManager) {
+    public CompletableFuture<Void> reload(IStage stage, IResourceManager resourceManager, IProfiler preparationsProfiler, IProfiler reloadProfiler, Executor backgroundExecutor, Executor gameExecutor) {
         Gson gson = (new GsonBuilder()).setPrettyPrinting().disableHtmlEscaping().create();
-        Collection<ResourceLocation> resources = getAllResources(resourceManager);
-        if (resources.isEmpty()) return;
-
-        MAP.clear();
-        ERROR_LIST.clear();
-        SilentGear.LOGGER.info(MARKER, "Reloading trait files");
-
-        for (ResourceLocation id : resources) {
-            String path = id.getPath().substring(DATA_PATH.length() + 1, id.getPath().length() - ".json".length());
-            ResourceLocation name = new ResourceLocation(id.getNamespace(), path);
-
-            try (IResource iresource = resourceManager.getResource(id)) {
-                if (SilentGear.LOGGER.isTraceEnabled()) {
-                    SilentGear.LOGGER.trace(MARKER, "Found likely trait file: {}, trying to read as trait {}", id, name);
-                }
+        return JsonFileLoader.loadAll(resourceManager, gson, backgroundExecutor, DATA_PATH, DATA_PATH_OLD)
+                .thenCompose(stage::markCompleteAwaitingOthers)
+                .thenAcceptAsync(TraitManager::apply, gameExecutor);
+    }
 
-                JsonObject json = JSONUtils.fromJson(gson, IOUtils.toString(iresource.getInputStream(), StandardCharsets.UTF_8), JsonObject.class);
-                if (json == null) {
-                    SilentGear.LOGGER.error(MARKER, "could not load trait {} as it's null or empty", name);
-                } else {
-                    addTrait(TraitSerializers.deserialize(name, json));
+    private static void apply(List<JsonFileLoader.ParsedFile> files) {
+        if (files.isEmpty()) return;
+
+        long startTime = System.nanoTime();
+        Map<ResourceLocation, ITrait> map = new LinkedHashMap<>();
+        synchronized (ERROR_LIST) {
+            ERROR_LIST.clear();
+            SilentGear.LOGGER.info(MARKER, "Reloading trait files");
+
+            for (JsonFileLoader.ParsedFile file : files) {
+                ResourceLocation name = file.getName();
+                try {
+                    if (SilentGear.LOGGER.isTraceEnabled()) {
+                        SilentGear.LOGGER.trace(MARKER, "Found likely trait file: {}, trying to read as trait {}", file.getFile(), name);
+                    }
+
+                    JsonObject json = file.readJson();
+                    if (json == null) {
+                        SilentGear.LOGGER.error(MARKER, "could not load trait {} as it's null or empty", name);
+                    } else {
+                        addTrait(map, TraitSerializers.deserialize(name, json));
+                    }
+                } catch (IllegalArgumentException | JsonParseException ex) {
+                    SilentGear.LOGGER.error(MARKER, "Parsing error loading trait {}", name, ex);
+                    ERROR_LIST.add(name);
+                } catch (IOException ex) {
+                    SilentGear.LOGGER.error(MARKER, "Could not read trait {}", name, ex);
+                    ERROR_LIST.add(name);
                 }
-            } catch (IllegalArgumentException | JsonParseException ex) {
-                SilentGear.LOGGER.error(MARKER, "Parsing error loading trait {}", name, ex);
-                ERROR_LIST.add(name);
-            } catch (IOException ex) {
-                SilentGear.LOGGER.error(MARKER, "Could not read trait {}", name, ex);
-                ERROR_LIST.add(name);
             }
         }
 
-        SilentGear.LOGGER.info(MARKER, "Registered {} traits", MAP.size());
+        SilentGear.LOGGER.info(MARKER, "Registered {} traits in {} ms", map.size(), JsonFileLoader.getMillisSince(startTime));
+        publish(map);
     }
 
-    private static Collection<ResourceLocation> getAllResources(IResourceManager resourceManager) {
-        Collection<ResourceLocation> list = new ArrayList<>();
-        list.addAll(resourceManager.getAllResourceLocations(DATA_PATH, s -> s.endsWith(".json")));
-        list.addAll(resourceManager.getAllResourceLocations(DATA_PATH_OLD, s -> s.endsWith(".json")));
-        return list;
-    }
-
-    private static void addTrait(ITrait trait) {
-        if (MAP.containsKey(trait.getId())) {
+    private static void addTrait(Map<ResourceLocation, ITrait> map, ITrait trait) {
+        if (map.containsKey(trait.getId())) {
             throw new IllegalArgumentException("Duplicate trait " + trait.getId());
         } else {
-            MAP.put(trait.getId(), trait);
+            map.put(trait.getId(), trait);
         }
     }
 
+    private static void publish(Map<ResourceLocation, ITrait> map) {
+        snapshot = new Snapshot(map);
+        GearView.invalidateAll();
+        TraitTickScheduler.invalidateAll();
+        PartContributionCache.invalidateAll();
+        GearRecipeMemo.invalidateAll();
+        EquipmentAggregate.invalidateAll();
+    }
+
+    /**
+     * Gets the dense ordinal of the trait, assigned when traits are loaded. Ordinals range from
+     * zero to {@link #getOrdinalCount()} (exclusive) and change on every reload, so they must never
+     * be saved.
+     *
+     * @param id The trait ID
+     * @return The trait's ordinal, or -1 if the trait does not exist
+     */
+    public static int getOrdinal(ResourceLocation id) {
+        Integer ordinal = snapshot.ordinals.get(id);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public static int getOrdinalCount() {
+        return snapshot.ordinals.size();
+    }
+
     public static Collection<ResourceLocation> getKeys() {
-        synchronized (MAP) {
-            return MAP.keySet();
-        }
+        return snapshot.map.keySet();
     }
 
     public static Collection<ITrait> getValues() {
-        synchronized (MAP) {
-            return MAP.values();
-        }
+        return snapshot.map.values();
     }
 
     @Nullable
     public static ITrait get(ResourceLocation id) {
-        return MAP.get(id);
+        return snapshot.map.get(id);
     }
 
     @Nullable
@@ -118,27 +146,49 @@ public final class TraitManager implements IResourceManagerReloadListener {
     }
 
     public static void handleTraitSyncPacket(SyncTraitsPacket packet, Supplier<NetworkEvent.Context> context) {
-        synchronized (MAP) {
-            Map<ResourceLocation, ITrait> oldTraits = ImmutableMap.copyOf(MAP);
-            MAP.clear();
-            for (ITrait trait : packet.getTraits()) {
-                trait.retainData(oldTraits.get(trait.getId()));
-                MAP.put(trait.getId(), trait);
+        Map<ResourceLocation, ITrait> oldTraits = snapshot.map;
+        Map<ResourceLocation, ITrait> map = new LinkedHashMap<>();
+        for (ITrait trait : packet.getTraits()) {
+            ITrait old = oldTraits.get(trait.getId());
+            // Delta sync applies cached entries early, then again with the complete list
+            if (old != trait) {
+                trait.retainData(old);
             }
-            SilentGear.LOGGER.info("Read {} traits from server", MAP.size());
+            map.put(trait.getId(), trait);
         }
+        publish(map);
+        SilentGear.LOGGER.info("Read {} traits from server", map.size());
         context.get().setPacketHandled(true);
     }
 
     public static Collection<ITextComponent> getErrorMessages(ServerPlayerEntity player) {
-        if (!ERROR_LIST.isEmpty()) {
-            String listStr = ERROR_LIST.stream().map(ResourceLocation::toString).collect(Collectors.joining(", "));
-            return ImmutableList.of(
-                    new StringTextComponent("[Silent Gear] The following traits failed to load, check your log file:")
-                            .mergeStyle(TextFormatting.RED),
-                    new StringTextComponent(listStr)
-            );
+        synchronized (ERROR_LIST) {
+            if (!ERROR_LIST.isEmpty()) {
+                String listStr = ERROR_LIST.stream().map(ResourceLocation::toString).collect(Collectors.joining(", "));
+                return ImmutableList.of(
+                        new StringTextComponent("[Silent Gear] The following traits failed to load, check your log file:")
+                                .mergeStyle(TextFormatting.RED),
+                        new StringTextComponent(listStr)
+                );
+            }
         }
         return ImmutableList.of();
     }
+
+    private static final class Snapshot {
+        private final ImmutableMap<ResourceLocation, ITrait> map;
+        // Dense trait ordinals in load order, used for trait index lookups
+        private final ImmutableMap<ResourceLocation, Integer> ordinals;
+
+        private Snapshot(Map<ResourceLocation, ITrait> traits) {
+            this.map = ImmutableMap.copyOf(traits);
+
+            ImmutableMap.Builder<ResourceLocation, Integer> builder = ImmutableMap.builder();
+            int ordinal = 0;
+            for (ResourceLocation id : this.map.keySet()) {
+                builder.put(id, ordinal++);
+            }
+            this.ordinals = builder.build();
+        }
+    }
 }
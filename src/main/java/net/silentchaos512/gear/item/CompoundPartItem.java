@@ -20,6 +20,7 @@ import net.silentchaos512.gear.client.util.TextListBuilder;
 import net.silentchaos512.gear.gear.material.LazyMaterialInstance;
 import net.silentchaos512.gear.gear.material.MaterialInstance;
 import net.silentchaos512.gear.gear.part.PartData;
+import net.silentchaos512.gear.gear.part.PartEvaluationContext;
 import net.silentchaos512.gear.init.ModItems;
 import net.silentchaos512.gear.util.Const;
 import net.silentchaos512.gear.util.SynergyUtils;
@@ -158,11 +159,11 @@ public class CompoundPartItem extends Item {
     public void addInformation(ItemStack stack, @Nullable World worldIn, List<ITextComponent> tooltip, ITooltipFlag flagIn) {
         PartData part = PartData.from(stack);
         if (part != null) {
-            float synergy = SynergyUtils.getSynergy(this.partType, getMaterials(stack), part.getTraits());
-            tooltip.add(SynergyUtils.getDisplayText(synergy));
+            PartEvaluationContext context = new PartEvaluationContext(part, this.partType, ItemStack.EMPTY);
+            tooltip.add(SynergyUtils.getDisplayText(context.getSynergy()));
 
             TextListBuilder matsBuilder = new TextListBuilder();
-            getMaterials(stack).forEach(material -> {
+            context.getMaterials().forEach(material -> {
                 int nameColor = material.get().getNameColor(part.getType(), this.getGearType());
                 matsBuilder.add(TextUtil.withColor(material.getDisplayNameWithGrade(part.getType()), nameColor));
             });
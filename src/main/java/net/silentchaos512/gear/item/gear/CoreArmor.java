@@ -170,11 +170,6 @@ public class CoreArmor extends DyeableArmorItem implements ICoreArmor {
         return GearData.getStatInt(stack, ItemStats.ENCHANTABILITY);
     }
 
-    @Override
-    public void onArmorTick(ItemStack stack, World world, PlayerEntity player) {
-        GearHelper.inventoryTick(stack, world, player, 0, true);
-    }
-
     @Override
     public void fillItemGroup(ItemGroup group, NonNullList<ItemStack> items) {
         GearHelper.fillItemGroup(this, group, items);
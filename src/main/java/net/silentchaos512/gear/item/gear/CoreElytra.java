@@ -154,11 +154,6 @@ public class CoreElytra extends ElytraItem implements ICoreArmor {
         return GearHelper.getIsRepairable(toRepair, repair);
     }
 
-    @Override
-    public void onArmorTick(ItemStack stack, World world, PlayerEntity player) {
-        GearHelper.inventoryTick(stack, world, player, 0, true);
-    }
-
     @Override
     public void fillItemGroup(ItemGroup group, NonNullList<ItemStack> items) {
         GearHelper.fillItemGroup(this, group, items);
@@ -15,7 +15,6 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.inventory.EquipmentSlotType;
 import net.minecraft.item.*;
-import net.minecraft.network.play.server.SChangeBlockPacket;
 import net.minecraft.util.ActionResultType;
 import net.minecraft.util.NonNullList;
 import net.minecraft.util.math.BlockPos;
@@ -31,13 +30,12 @@ import net.silentchaos512.gear.api.stats.ItemStats;
 import net.silentchaos512.gear.client.util.GearClientHelper;
 import net.silentchaos512.gear.util.GearData;
 import net.silentchaos512.gear.util.GearHelper;
+import net.silentchaos512.gear.util.IAOETool;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class CoreSickle extends ToolItem implements ICoreTool {
     public static final ToolType TOOL_TYPE = ToolType.get("sickle");
@@ -131,19 +129,18 @@ public class CoreSickle extends ToolItem implements ICoreTool {
         if (player == null) return ActionResultType.PASS;
 
         int fortune = EnchantmentHelper.getEnchantmentLevel(Enchantments.FORTUNE, sickle);
-        int harvestCount = 0;
-        final int radius = HARVEST_RANGE;
-
-        for (int z = pos.getZ() - radius; z <= pos.getZ() + radius; ++z) {
-            for (int x = pos.getX() - radius; x <= pos.getX() + radius; ++x) {
-                BlockPos target = new BlockPos(x, pos.getY(), z);
-                state = world.getBlockState(target);
-
-                if (canRightClickHarvestBlock(state) && tryHarvest(world, target, state, player, sickle, fortune)) {
-                    ++harvestCount;
+        List<BlockPos> targets = findTargets(world, pos, HARVEST_RANGE, CoreSickle::canRightClickHarvestBlock);
+
+        // Drops of the whole area are merged before spawning
+        int harvestCount = IAOETool.BreakHandler.runBatch(world, () -> {
+            int count = 0;
+            for (BlockPos target : targets) {
+                if (tryHarvest(world, target, world.getBlockState(target), player, sickle, fortune)) {
+                    ++count;
                 }
             }
-        }
+            return count;
+        });
 
         if (harvestCount > 0) {
             GearHelper.attemptDamage(sickle, DURABILITY_USAGE, player, context.getHand());
@@ -167,65 +164,67 @@ public class CoreSickle extends ToolItem implements ICoreTool {
 
         if (!effectiveMaterials.contains(state.getMaterial())) return false;
 
-        int blocksBroken = 1;
+        if (player instanceof ServerPlayerEntity) {
+            List<BlockPos> targets = findTargets(world, pos, range, state::equals);
+            targets.remove(pos);
 
-        final int x = pos.getX();
-        final int y = pos.getY();
-        final int z = pos.getZ();
-
-        for (int xPos = x - range; xPos <= x + range; ++xPos) {
-            for (int zPos = z - range; zPos <= z + range; ++zPos) {
-                BlockPos target = new BlockPos(xPos, y, zPos);
-                if (!(xPos == x && zPos == z) && world.getBlockState(target) == state && breakExtraBlock(sickle, world, target, player, effectiveMaterials)) {
-                    ++blocksBroken;
+            // Drops of the whole area are merged before spawning
+            IAOETool.BreakHandler.runBatch(world, () -> {
+                for (BlockPos target : targets) {
+                    breakExtraBlock(sickle, (ServerWorld) world, target, (ServerPlayerEntity) player, effectiveMaterials);
                 }
-            }
+            });
         }
 
         return super.onBlockStartBreak(sickle, pos, player);
     }
 
-    private static boolean breakExtraBlock(ItemStack sickle, World world, BlockPos pos, PlayerEntity player, Set<Material> effectiveMaterials) {
-        if (world.isAirBlock(pos) || !(player instanceof ServerPlayerEntity)) return false;
+    /**
+     * Finds the blocks in a square area on the same level as the center which match the predicate.
+     * Blocks in unloaded chunks are skipped.
+     *
+     * @return Positions of the matching blocks, in the order they should be harvested
+     */
+    private static List<BlockPos> findTargets(World world, BlockPos center, int range, Predicate<BlockState> predicate) {
+        List<BlockPos> list = new ArrayList<>();
+        BlockPos.Mutable target = new BlockPos.Mutable();
+
+        for (int x = center.getX() - range; x <= center.getX() + range; ++x) {
+            for (int z = center.getZ() - range; z <= center.getZ() + range; ++z) {
+                target.setPos(x, center.getY(), z);
+                if (world.isBlockLoaded(target) && predicate.test(world.getBlockState(target))) {
+                    list.add(target.toImmutable());
+                }
+            }
+        }
+        return list;
+    }
 
-        ServerPlayerEntity playerMP = (ServerPlayerEntity) player;
-        BlockState state = player.world.getBlockState(pos);
+    private static boolean breakExtraBlock(ItemStack sickle, ServerWorld world, BlockPos pos, ServerPlayerEntity player, Set<Material> effectiveMaterials) {
+        BlockState state = world.getBlockState(pos);
         Block block = state.getBlock();
 
-        if (!effectiveMaterials.contains(state.getMaterial())) return false;
+        if (state.isAir(world, pos) || !effectiveMaterials.contains(state.getMaterial())) return false;
 
-        int xpDropped = ForgeHooks.onBlockBreakEvent(world, playerMP.interactionManager.getGameType(), playerMP, pos);
+        int xpDropped = ForgeHooks.onBlockBreakEvent(world, player.interactionManager.getGameType(), player, pos);
         boolean canceled = xpDropped == -1;
         if (canceled) return false;
 
-        if (playerMP.abilities.isCreativeMode) {
+        // Block changes are sent by the chunk manager, batched per chunk section
+        if (player.abilities.isCreativeMode) {
             block.onBlockHarvested(world, pos, state, player);
-            if (block.removedByPlayer(state, world, pos, playerMP, false, state.getFluidState())) {
+            if (block.removedByPlayer(state, world, pos, player, false, state.getFluidState())) {
                 block.onPlayerDestroy(world, pos, state);
             }
-            if (!world.isRemote) {
-                playerMP.connection.sendPacket(new SChangeBlockPacket(world, pos));
-            }
             return true;
         }
 
-        if (!world.isRemote && world instanceof ServerWorld) {
-            block.onBlockHarvested(world, pos, state, playerMP);
-
-            if (block.removedByPlayer(state, world, pos, playerMP, true, state.getFluidState())) {
-                block.onPlayerDestroy(world, pos, state);
-                block.harvestBlock(world, player, pos, state, null, sickle);
-                block.dropXpOnBlockBreak((ServerWorld) world, pos, xpDropped);
-            }
-
-            playerMP.connection.sendPacket(new SChangeBlockPacket(world, pos));
-        } else {
-            world.playEvent(2001, pos, Block.getStateId(state));
-            if (block.removedByPlayer(state, world, pos, playerMP, true, state.getFluidState())) {
-                block.onPlayerDestroy(world, pos, state);
-            }
+        block.onBlockHarvested(world, pos, state, player);
 
-            sickle.onBlockDestroyed(world, state, pos, playerMP);
+        if (block.removedByPlayer(state, world, pos, player, true, state.getFluidState())) {
+            block.onPlayerDestroy(world, pos, state);
+            block.harvestBlock(world, player, pos, state, null, sickle);
+            block.dropXpOnBlockBreak(world, pos, xpDropped);
         }
 
         return true;
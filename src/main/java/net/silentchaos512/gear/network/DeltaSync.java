@@ -0,0 +1,350 @@
+package net.silentchaos512.gear.network;
+
+import com.google.common.hash.Hashing;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.network.NetworkManager;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.fml.network.NetworkDirection;
+import net.minecraftforge.fml.network.NetworkEvent;
+import net.silentchaos512.gear.SilentGear;
+import net.silentchaos512.gear.client.util.ClientSyncRefresh;
+import net.silentchaos512.gear.config.Config;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content-addressed synchronization of traits, parts and materials. Instead of sending every entry
+ * on login, the server sends a {@link SyncManifestPacket} with the ID and a hash of the serialized
+ * bytes of each entry. The client looks the hashes up in its on-disk cache from previous sessions,
+ * applies what it found, and replies with the IDs it is missing. The server sends only those
+ * entries (see {@link SyncEntriesPacket}) when the player joins, and the client then applies the
+ * complete list and updates its cache.
+ * <p>
+ * Missing entries arrive after vanilla has sent recipes and tags, so once they are applied the
+ * client refreshes anything built from recipes against the complete data (see {@link
+ * ClientSyncRefresh}).
+ * <p>
+ * The cache keeps entries from every server the player has joined, up to a fixed size, and drops
+ * the least recently used entries first.
+ * <p>
+ * Disabled in single player and when {@code network.deltaSync} is off in the config, in which case
+ * the full sync login packets are sent instead.
+ */
+public final class DeltaSync {
+    private static final int CACHE_VERSION = 1;
+    private static final int MAX_CACHE_ENTRIES = 8192;
+    private static final long MAX_CACHE_BYTES = 16L << 20;
+    private static final int MAX_ENTRIES_PACKET_SIZE = 256 * 1024;
+
+    // Server: entries each connection is missing, reported during login
+    private static final Map<NetworkManager, Map<SyncDataType<?>, List<ResourceLocation>>> MISSING_ENTRIES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+    // Client: manifests still waiting for entries from the server
+    private static final Map<SyncDataType<?>, PendingManifest> PENDING_MANIFESTS = new ConcurrentHashMap<>();
+
+    private DeltaSync() {throw new IllegalAccessError("Utility class");}
+
+    public static boolean isEnabled(boolean isLocal) {
+        return !isLocal && Config.Common.deltaSyncEnabled.get();
+    }
+
+    //region Server
+
+    public static List<Pair<String, SyncManifestPacket>> createManifests(boolean isLocal) {
+        if (!isEnabled(isLocal)) {
+            return Collections.emptyList();
+        }
+
+        List<Pair<String, SyncManifestPacket>> list = new ArrayList<>();
+        for (SyncDataType<?> type : SyncDataType.getValues()) {
+            list.add(Pair.of(SyncManifestPacket.class.getName() + "$" + type.getName(), createManifest(type)));
+        }
+        return list;
+    }
+
+    private static <T> SyncManifestPacket createManifest(SyncDataType<T> type) {
+        Collection<T> values = type.getServerValues();
+        List<ResourceLocation> ids = new ArrayList<>(values.size());
+        long[] hashes = new long[values.size()];
+
+        int i = 0;
+        for (T value : values) {
+            byte[] bytes = type.serialize(value);
+            ids.add(type.readId(bytes));
+            hashes[i++] = hash(bytes);
+        }
+        return new SyncManifestPacket(type, ids, hashes);
+    }
+
+    static void onManifestReply(SyncDataType<?> type, List<ResourceLocation> missing, NetworkManager networkManager) {
+        SilentGear.LOGGER.debug("Client is missing {} {}", missing.size(), type.getName());
+        if (!missing.isEmpty()) {
+            synchronized (MISSING_ENTRIES) {
+                MISSING_ENTRIES.computeIfAbsent(networkManager, nm -> new LinkedHashMap<>()).put(type, missing);
+            }
+        }
+    }
+
+    /**
+     * Sends the entries the player's client reported missing during login. Must be called before
+     * anything which depends on the client having all entries, such as crafting item corrections.
+     *
+     * @param player The player who just joined
+     */
+    public static void sendMissingEntries(ServerPlayerEntity player) {
+        NetworkManager networkManager = player.connection.netManager;
+        Map<SyncDataType<?>, List<ResourceLocation>> missing = MISSING_ENTRIES.remove(networkManager);
+        if (missing != null) {
+            missing.forEach((type, ids) -> sendEntries(type, ids, networkManager));
+        }
+    }
+
+    private static <T> void sendEntries(SyncDataType<T> type, Collection<ResourceLocation> ids, NetworkManager networkManager) {
+        Set<ResourceLocation> remaining = new LinkedHashSet<>(ids);
+        Map<ResourceLocation, byte[]> entries = new LinkedHashMap<>();
+        int packetSize = 0;
+
+        for (T value : type.getServerValues()) {
+            byte[] bytes = type.serialize(value);
+            ResourceLocation id = type.readId(bytes);
+            if (remaining.remove(id)) {
+                entries.put(id, bytes);
+                packetSize += bytes.length;
+                if (packetSize >= MAX_ENTRIES_PACKET_SIZE) {
+                    Network.channel.sendTo(new SyncEntriesPacket(type, entries), networkManager, NetworkDirection.PLAY_TO_CLIENT);
+                    entries = new LinkedHashMap<>();
+                    packetSize = 0;
+                }
+            }
+        }
+
+        // Entries removed by a reload since login, so the client can stop waiting for them
+        for (ResourceLocation id : remaining) {
+            entries.put(id, new byte[0]);
+        }
+        if (!entries.isEmpty()) {
+            Network.channel.sendTo(new SyncEntriesPacket(type, entries), networkManager, NetworkDirection.PLAY_TO_CLIENT);
+        }
+        SilentGear.LOGGER.debug("Sent {} missing {}", ids.size(), type.getName());
+    }
+
+    //endregion
+
+    //region Client
+
+    /**
+     * Resolves the manifest's entries from the sync cache and applies what was found.
+     *
+     * @param packet The manifest
+     * @param ctx    The network context
+     * @return IDs of entries which were not in the cache
+     */
+    public static List<ResourceLocation> onManifestReceived(SyncManifestPacket packet, Supplier<NetworkEvent.Context> ctx) {
+        return onManifestReceived(packet.getType(), packet, ctx);
+    }
+
+    private static <T> List<ResourceLocation> onManifestReceived(SyncDataType<T> type, SyncManifestPacket packet, Supplier<NetworkEvent.Context> ctx) {
+        Map<Long, byte[]> cache = loadCache(type);
+        PendingManifest pending = new PendingManifest(packet.getIds());
+        List<ResourceLocation> missing = new ArrayList<>();
+
+        for (int i = 0; i < pending.ids.size(); ++i) {
+            byte[] bytes = cache.get(packet.getHash(i));
+            T value = bytes != null ? tryDeserialize(type, bytes) : null;
+            if (value != null) {
+                pending.entries[i] = bytes;
+                pending.values[i] = value;
+            } else {
+                missing.add(pending.ids.get(i));
+            }
+        }
+
+        SilentGear.LOGGER.info("Found {} of {} {} in sync cache", pending.ids.size() - missing.size(), pending.ids.size(), type.getName());
+        if (missing.isEmpty()) {
+            PENDING_MANIFESTS.remove(type);
+            complete(type, pending, ctx);
+        } else {
+            // Apply the cached entries now, the rest follow when the player joins
+            PENDING_MANIFESTS.put(type, pending);
+            apply(type, pending, ctx);
+        }
+        return missing;
+    }
+
+    /**
+     * Applies entries which were missing from the cache. Must be called on the main thread, since
+     * this replaces the client's data while the game is running.
+     */
+    static void onEntriesReceived(SyncDataType<?> type, Map<ResourceLocation, byte[]> entries, Supplier<NetworkEvent.Context> ctx) {
+        PendingManifest pending = PENDING_MANIFESTS.get(type);
+        if (pending == null) {
+            SilentGear.LOGGER.warn("Received {} sync entries without a manifest", type.getName());
+            return;
+        }
+
+        entries.forEach(pending::put);
+        if (pending.isComplete()) {
+            PENDING_MANIFESTS.remove(type);
+            complete(type, pending, ctx);
+
+            if (PENDING_MANIFESTS.isEmpty()) {
+                // Recipes and tags were received while some entries were still missing
+                DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> ClientSyncRefresh::refresh);
+            }
+        }
+    }
+
+    private static void complete(SyncDataType<?> type, PendingManifest pending, Supplier<NetworkEvent.Context> ctx) {
+        apply(type, pending, ctx);
+        saveCache(type, pending);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void apply(SyncDataType<T> type, PendingManifest pending, Supplier<NetworkEvent.Context> ctx) {
+        List<T> list = new ArrayList<>();
+        for (int i = 0; i < pending.entries.length; ++i) {
+            byte[] bytes = pending.entries[i];
+            if (bytes != null && bytes.length > 0) {
+                // Entries read from the cache were already deserialized when they were checked
+                if (pending.values[i] == null) {
+                    pending.values[i] = type.deserialize(bytes);
+                }
+                list.add((T) pending.values[i]);
+            }
+        }
+        type.apply(list, ctx);
+    }
+
+    @Nullable
+    private static <T> T tryDeserialize(SyncDataType<T> type, byte[] bytes) {
+        try {
+            return type.deserialize(bytes);
+        } catch (RuntimeException ex) {
+            SilentGear.LOGGER.debug("Discarding unreadable {} sync cache entry", type.getName(), ex);
+            return null;
+        }
+    }
+
+    private static Path getCacheFile(SyncDataType<?> type) {
+        return FMLPaths.GAMEDIR.get().resolve(SilentGear.MOD_ID).resolve("sync-cache").resolve(type.getName() + ".bin");
+    }
+
+    /**
+     * Reads the cache file. Entries are stored from least to most recently used.
+     */
+    private static LinkedHashMap<Long, byte[]> loadCache(SyncDataType<?> type) {
+        Path path = getCacheFile(type);
+        LinkedHashMap<Long, byte[]> map = new LinkedHashMap<>();
+        if (!Files.isRegularFile(path)) {
+            return map;
+        }
+
+        try (DataInputStream input = new DataInputStream(new InflaterInputStream(new BufferedInputStream(Files.newInputStream(path))))) {
+            if (input.readInt() != CACHE_VERSION) {
+                return map;
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; ++i) {
+                byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                // Keyed by the hash of what was read, so corrupted entries never match a manifest
+                map.put(hash(bytes), bytes);
+            }
+        } catch (IOException | RuntimeException ex) {
+            SilentGear.LOGGER.warn("Could not read {} sync cache: {}", type.getName(), ex.getMessage());
+        }
+        return map;
+    }
+
+    /**
+     * Merges this server's entries into the cache file as the most recently used, then drops the
+     * least recently used entries until the cache fits its limits.
+     */
+    private static void saveCache(SyncDataType<?> type, PendingManifest pending) {
+        LinkedHashMap<Long, byte[]> cache = loadCache(type);
+        for (byte[] bytes : pending.entries) {
+            if (bytes != null && bytes.length > 0) {
+                long hash = hash(bytes);
+                cache.remove(hash);
+                cache.put(hash, bytes);
+            }
+        }
+
+        long totalBytes = 0;
+        for (byte[] bytes : cache.values()) {
+            totalBytes += bytes.length;
+        }
+        Iterator<byte[]> iterator = cache.values().iterator();
+        while (iterator.hasNext() && (cache.size() > MAX_CACHE_ENTRIES || totalBytes > MAX_CACHE_BYTES)) {
+            totalBytes -= iterator.next().length;
+            iterator.remove();
+        }
+
+        Path path = getCacheFile(type);
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))) {
+                output.writeInt(CACHE_VERSION);
+                output.writeInt(cache.size());
+                for (byte[] bytes : cache.values()) {
+                    output.writeInt(bytes.length);
+                    output.write(bytes);
+                }
+            }
+        } catch (IOException ex) {
+            SilentGear.LOGGER.warn("Could not write {} sync cache: {}", type.getName(), ex.getMessage());
+        }
+    }
+
+    //endregion
+
+    private static long hash(byte[] bytes) {
+        return Hashing.murmur3_128().hashBytes(bytes).asLong();
+    }
+
+    private static final class PendingManifest {
+        private final List<ResourceLocation> ids;
+        private final Map<ResourceLocation, Integer> indexes = new HashMap<>();
+        // Serialized entries in manifest order, null until received (empty if removed on the server)
+        private final byte[][] entries;
+        // Deserialized entries, so each one is only read once
+        private final Object[] values;
+
+        private PendingManifest(List<ResourceLocation> ids) {
+            this.ids = ids;
+            this.entries = new byte[ids.size()][];
+            this.values = new Object[ids.size()];
+            for (int i = 0; i < ids.size(); ++i) {
+                this.indexes.put(ids.get(i), i);
+            }
+        }
+
+        private void put(ResourceLocation id, byte[] bytes) {
+            Integer index = indexes.get(id);
+            if (index != null) {
+                entries[index] = bytes;
+            }
+        }
+
+        private boolean isComplete() {
+            for (byte[] bytes : entries) {
+                if (bytes == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,62 +1,90 @@
 package net.silentchaos512.gear.network;
 
+import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.network.NetworkEvent;
+import net.silentchaos512.gear.client.event.ExtraBlockBreakHandler;
 
-public class MessageExtraBlockBreak /*extends MessageSL*/ {
-    public int entityID = 0;
-    public int numBlocks = 0;
-    public int progress = 0;
-    int[][] positions = new int[numBlocks][3];
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
 
-    public MessageExtraBlockBreak() {
-    }
+/**
+ * Break progress of the extra blocks an AOE tool will break, so clients can draw cracks on them.
+ * Positions are sent as byte offsets from the block being mined, since AOE patterns are always
+ * small. Only sent when the progress stage changes. A stage of -1 (with no positions) clears the
+ * breaker's progress.
+ */
+public class MessageExtraBlockBreak {
+    private static final int MAX_POSITIONS = 255;
+
+    private final int breakerId;
+    private final int progress;
+    private final BlockPos basePos;
+    private final byte[] offsets;
 
-    public MessageExtraBlockBreak(int entityID, int progress, BlockPos... positions) {
-        this.entityID = entityID;
-        this.numBlocks = positions.length;
+    public MessageExtraBlockBreak(int breakerId, int progress, BlockPos basePos, Collection<BlockPos> positions) {
+        this.breakerId = breakerId;
         this.progress = progress;
-        this.positions = new int[numBlocks][3];
+        this.basePos = basePos.toImmutable();
 
-        for (int i = 0; i < numBlocks; ++i) {
-            BlockPos pos = positions[i];
-            this.positions[i][0] = pos.getX();
-            this.positions[i][1] = pos.getY();
-            this.positions[i][2] = pos.getZ();
+        byte[] bytes = new byte[Math.min(positions.size(), MAX_POSITIONS) * 3];
+        int count = 0;
+        for (BlockPos pos : positions) {
+            int dx = pos.getX() - basePos.getX();
+            int dy = pos.getY() - basePos.getY();
+            int dz = pos.getZ() - basePos.getZ();
+            if (count < bytes.length && isByte(dx) && isByte(dy) && isByte(dz)) {
+                bytes[count++] = (byte) dx;
+                bytes[count++] = (byte) dy;
+                bytes[count++] = (byte) dz;
+            }
         }
+        this.offsets = count == bytes.length ? bytes : Arrays.copyOf(bytes, count);
     }
 
-    /*
-    @Override
-    public void fromBytes(ByteBuf buf) {
-        super.fromBytes(buf);
+    private MessageExtraBlockBreak(int breakerId, int progress, BlockPos basePos, byte[] offsets) {
+        this.breakerId = breakerId;
+        this.progress = progress;
+        this.basePos = basePos;
+        this.offsets = offsets;
+    }
 
-        this.positions = new int[this.numBlocks][3];
-        for (int i = 0; i < this.numBlocks; ++i) {
-            this.positions[i][0] = buf.readInt();
-            this.positions[i][1] = buf.readInt();
-            this.positions[i][2] = buf.readInt();
-        }
+    public static MessageExtraBlockBreak clear(int breakerId, BlockPos basePos) {
+        return new MessageExtraBlockBreak(breakerId, -1, basePos, new byte[0]);
     }
 
-    @Override
-    public void toBytes(ByteBuf buf) {
-        super.toBytes(buf);
+    private static boolean isByte(int value) {
+        return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+    }
 
-        for (int i = 0; i < this.numBlocks; ++i) {
-            buf.writeInt(this.positions[i][0]);
-            buf.writeInt(this.positions[i][1]);
-            buf.writeInt(this.positions[i][2]);
-        }
+    public static MessageExtraBlockBreak decode(PacketBuffer buffer) {
+        int breakerId = buffer.readVarInt();
+        int progress = buffer.readByte();
+        BlockPos basePos = buffer.readBlockPos();
+        byte[] offsets = new byte[(buffer.readByte() & 0xFF) * 3];
+        buffer.readBytes(offsets);
+        return new MessageExtraBlockBreak(breakerId, progress, basePos, offsets);
+    }
+
+    public void encode(PacketBuffer buffer) {
+        buffer.writeVarInt(this.breakerId);
+        buffer.writeByte(this.progress);
+        buffer.writeBlockPos(this.basePos);
+        buffer.writeByte(this.offsets.length / 3);
+        buffer.writeBytes(this.offsets);
     }
 
-    @Override
-    public IMessage handleMessage(MessageContext context) {
-        BlockPos[] positions = new BlockPos[this.numBlocks];
-        for (int i = 0; i < this.numBlocks; ++i)
-            positions[i] = new BlockPos(this.positions[i][0], this.positions[i][1], this.positions[i][2]);
-        ExtraBlockBreakHandler.INSTANCE.sendBlockBreakProgress(this.entityID, positions, this.progress);
+    public BlockPos[] getPositions() {
+        BlockPos[] positions = new BlockPos[this.offsets.length / 3];
+        for (int i = 0; i < positions.length; ++i) {
+            positions[i] = this.basePos.add(this.offsets[3 * i], this.offsets[3 * i + 1], this.offsets[3 * i + 2]);
+        }
+        return positions;
+    }
 
-        return null;
+    public void handle(Supplier<NetworkEvent.Context> context) {
+        context.get().enqueueWork(() -> ExtraBlockBreakHandler.INSTANCE.sendBlockBreakProgress(this.breakerId, getPositions(), this.progress));
+        context.get().setPacketHandled(true);
     }
-    */
 }
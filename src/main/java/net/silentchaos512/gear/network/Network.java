@@ -10,12 +10,15 @@ import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.gear.material.MaterialManager;
 import net.silentchaos512.gear.gear.part.PartManager;
 import net.silentchaos512.gear.gear.trait.TraitManager;
+import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 public final class Network {
     private static final ResourceLocation NAME = new ResourceLocation(SilentGear.MOD_ID, "network");
-    private static final String VERSION = "sgear-net-7";
+    private static final String VERSION = "sgear-net-9";
 
     public static SimpleChannel channel;
 
@@ -30,7 +33,9 @@ public final class Network {
                 .loginIndex(LoginPacket::getLoginIndex, LoginPacket::setLoginIndex)
                 .decoder(SyncTraitsPacket::fromBytes)
                 .encoder(SyncTraitsPacket::toBytes)
-                .markAsLoginPacket()
+                .buildLoginPacketList(isLocal -> DeltaSync.isEnabled(isLocal)
+                        ? Collections.emptyList()
+                        : Collections.singletonList(Pair.of(SyncTraitsPacket.class.getName(), new SyncTraitsPacket())))
                 .consumer(FMLHandshakeHandler.biConsumerFor((hh, msg, ctx) -> {
                     TraitManager.handleTraitSyncPacket(msg, ctx);
                     channel.reply(new LoginPacket.Reply(), ctx.get());
@@ -40,7 +45,9 @@ public final class Network {
                 .loginIndex(LoginPacket::getLoginIndex, LoginPacket::setLoginIndex)
                 .decoder(SyncGearPartsPacket::fromBytes)
                 .encoder(SyncGearPartsPacket::toBytes)
-                .markAsLoginPacket()
+                .buildLoginPacketList(isLocal -> DeltaSync.isEnabled(isLocal)
+                        ? Collections.emptyList()
+                        : Collections.singletonList(Pair.of(SyncGearPartsPacket.class.getName(), new SyncGearPartsPacket())))
                 .consumer(FMLHandshakeHandler.biConsumerFor((hh, msg, ctx) -> {
                     PartManager.handlePartSyncPacket(msg, ctx);
                     channel.reply(new LoginPacket.Reply(), ctx.get());
@@ -66,7 +73,9 @@ public final class Network {
                 .loginIndex(LoginPacket::getLoginIndex, LoginPacket::setLoginIndex)
                 .decoder(SyncMaterialsPacket::fromBytes)
                 .encoder(SyncMaterialsPacket::toBytes)
-                .markAsLoginPacket()
+                .buildLoginPacketList(isLocal -> DeltaSync.isEnabled(isLocal)
+                        ? Collections.emptyList()
+                        : Collections.singletonList(Pair.of(SyncMaterialsPacket.class.getName(), new SyncMaterialsPacket())))
                 .consumer(FMLHandshakeHandler.biConsumerFor((hh, msg, ctx) -> {
                     MaterialManager.handleSyncPacket(msg, ctx);
                     channel.reply(new LoginPacket.Reply(), ctx.get());
@@ -108,6 +117,32 @@ public final class Network {
                 .decoder(ClientOutputCommandPacket::decode)
                 .consumer(ClientOutputCommandPacket::handle)
                 .add();
+        channel.messageBuilder(SyncManifestPacket.class, 14)
+                .loginIndex(LoginPacket::getLoginIndex, LoginPacket::setLoginIndex)
+                .decoder(SyncManifestPacket::fromBytes)
+                .encoder(SyncManifestPacket::toBytes)
+                .buildLoginPacketList(DeltaSync::createManifests)
+                .consumer(FMLHandshakeHandler.biConsumerFor((hh, msg, ctx) -> {
+                    List<ResourceLocation> missing = DeltaSync.onManifestReceived(msg, ctx);
+                    channel.reply(new SyncManifestPacket.Reply(msg.getType(), missing), ctx.get());
+                }))
+                .add();
+        channel.messageBuilder(SyncManifestPacket.Reply.class, 15)
+                .loginIndex(LoginPacket::getLoginIndex, LoginPacket::setLoginIndex)
+                .decoder(SyncManifestPacket.Reply::fromBytes)
+                .encoder(SyncManifestPacket.Reply::toBytes)
+                .consumer(FMLHandshakeHandler.indexFirst((hh, msg, ctx) -> msg.handle(ctx)))
+                .add();
+        channel.messageBuilder(SyncEntriesPacket.class, 16, NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(SyncEntriesPacket::decode)
+                .encoder(SyncEntriesPacket::encode)
+                .consumer(SyncEntriesPacket::handle)
+                .add();
+        channel.messageBuilder(MessageExtraBlockBreak.class, 17, NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(MessageExtraBlockBreak::decode)
+                .encoder(MessageExtraBlockBreak::encode)
+                .consumer(MessageExtraBlockBreak::handle)
+                .add();
     }
 
     private Network() {}
@@ -0,0 +1,131 @@
+package net.silentchaos512.gear.network;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.network.NetworkEvent;
+import net.silentchaos512.gear.api.material.IMaterial;
+import net.silentchaos512.gear.api.part.IGearPart;
+import net.silentchaos512.gear.api.traits.ITrait;
+import net.silentchaos512.gear.gear.material.MaterialManager;
+import net.silentchaos512.gear.gear.material.MaterialSerializers;
+import net.silentchaos512.gear.gear.part.PartManager;
+import net.silentchaos512.gear.gear.part.PartSerializers;
+import net.silentchaos512.gear.gear.trait.TraitManager;
+import net.silentchaos512.gear.gear.trait.TraitSerializers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A kind of data pack object which is synchronized to clients on login, with the functions needed
+ * to serialize entries one at a time and apply the complete list on the client.
+ *
+ * @param <T> The type of object
+ */
+public final class SyncDataType<T> {
+    public static final SyncDataType<ITrait> TRAITS = new SyncDataType<>(0, "traits",
+            TraitManager::getValues,
+            TraitSerializers::write,
+            TraitSerializers::read,
+            (list, ctx) -> TraitManager.handleTraitSyncPacket(new SyncTraitsPacket(list), ctx));
+    public static final SyncDataType<IGearPart> PARTS = new SyncDataType<>(1, "parts",
+            PartManager::getValues,
+            PartSerializers::write,
+            PartSerializers::read,
+            (list, ctx) -> PartManager.handlePartSyncPacket(new SyncGearPartsPacket(list), ctx));
+    public static final SyncDataType<IMaterial> MATERIALS = new SyncDataType<>(2, "materials",
+            MaterialManager::getValues,
+            MaterialSerializers::write,
+            MaterialSerializers::read,
+            (list, ctx) -> MaterialManager.handleSyncPacket(new SyncMaterialsPacket(list), ctx));
+
+    // In the same order as the full sync login packets
+    private static final List<SyncDataType<?>> VALUES = ImmutableList.of(TRAITS, PARTS, MATERIALS);
+
+    private final int index;
+    private final String name;
+    private final Supplier<Collection<T>> values;
+    private final BiConsumer<T, PacketBuffer> writer;
+    private final Function<PacketBuffer, T> reader;
+    private final BiConsumer<List<T>, Supplier<NetworkEvent.Context>> applier;
+
+    private SyncDataType(int index,
+                         String name,
+                         Supplier<Collection<T>> values,
+                         BiConsumer<T, PacketBuffer> writer,
+                         Function<PacketBuffer, T> reader,
+                         BiConsumer<List<T>, Supplier<NetworkEvent.Context>> applier) {
+        this.index = index;
+        this.name = name;
+        this.values = values;
+        this.writer = writer;
+        this.reader = reader;
+        this.applier = applier;
+    }
+
+    public static List<SyncDataType<?>> getValues() {
+        return VALUES;
+    }
+
+    public static SyncDataType<?> byIndex(int index) {
+        if (index < 0 || index >= VALUES.size()) {
+            throw new IllegalArgumentException("Unknown sync data type: " + index);
+        }
+        return VALUES.get(index);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Collection<T> getServerValues() {
+        return values.get();
+    }
+
+    /**
+     * Serializes a single entry, exactly as the full sync packet would write it.
+     *
+     * @param value The entry
+     * @return The serialized entry
+     */
+    public byte[] serialize(T value) {
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        writer.accept(value, buffer);
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        return bytes;
+    }
+
+    public ResourceLocation readId(byte[] bytes) {
+        // All serializers write the ID first
+        return new PacketBuffer(Unpooled.wrappedBuffer(bytes)).readResourceLocation();
+    }
+
+    public T deserialize(byte[] bytes) {
+        return reader.apply(new PacketBuffer(Unpooled.wrappedBuffer(bytes)));
+    }
+
+    /**
+     * Replaces the client's entries, the same as receiving the full sync packet.
+     *
+     * @param list All entries, in server order
+     * @param ctx  The network context
+     */
+    public void apply(List<T> list, Supplier<NetworkEvent.Context> ctx) {
+        applier.accept(list, ctx);
+    }
+
+    @Override
+    public String toString() {
+        return "SyncDataType{" + name + "}";
+    }
+}
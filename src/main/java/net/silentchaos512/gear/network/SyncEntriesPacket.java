@@ -0,0 +1,118 @@
+package net.silentchaos512.gear.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.network.NetworkEvent;
+import net.silentchaos512.gear.SilentGear;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Sends serialized entries which the client was missing after a {@link SyncManifestPacket}.
+ * Payloads above a small threshold are deflated.
+ */
+public class SyncEntriesPacket {
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final int MAX_PAYLOAD_LENGTH = 16 << 20;
+
+    private final SyncDataType<?> type;
+    private final Map<ResourceLocation, byte[]> entries;
+
+    public SyncEntriesPacket(SyncDataType<?> type, Map<ResourceLocation, byte[]> entries) {
+        this.type = type;
+        this.entries = entries;
+    }
+
+    public static SyncEntriesPacket decode(PacketBuffer buffer) {
+        SilentGear.LOGGER.debug("Sync entries packet: {} bytes", buffer.readableBytes());
+        SyncDataType<?> type = SyncDataType.byIndex(buffer.readByte());
+        boolean compressed = buffer.readBoolean();
+        int length = buffer.readVarInt();
+        if (length < 0 || length > MAX_PAYLOAD_LENGTH) {
+            throw new IllegalStateException("Sync entries payload is too large: " + length);
+        }
+        byte[] payload = buffer.readByteArray();
+        if (compressed) {
+            payload = inflate(payload, length);
+        }
+
+        PacketBuffer data = new PacketBuffer(Unpooled.wrappedBuffer(payload));
+        int count = data.readVarInt();
+        Map<ResourceLocation, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; ++i) {
+            entries.put(data.readResourceLocation(), data.readByteArray());
+        }
+        return new SyncEntriesPacket(type, entries);
+    }
+
+    public void encode(PacketBuffer buffer) {
+        PacketBuffer data = new PacketBuffer(Unpooled.buffer());
+        data.writeVarInt(this.entries.size());
+        this.entries.forEach((id, bytes) -> {
+            data.writeResourceLocation(id);
+            data.writeByteArray(bytes);
+        });
+
+        byte[] payload = new byte[data.readableBytes()];
+        data.readBytes(payload);
+        boolean compress = payload.length > COMPRESSION_THRESHOLD;
+
+        buffer.writeByte(this.type.getIndex());
+        buffer.writeBoolean(compress);
+        buffer.writeVarInt(payload.length);
+        buffer.writeByteArray(compress ? deflate(payload) : payload);
+    }
+
+    public void handle(Supplier<NetworkEvent.Context> context) {
+        // Replaces client data while the game is running, so it must happen on the main thread
+        context.get().enqueueWork(() -> DeltaSync.onEntriesReceived(this.type, this.entries, context));
+        context.get().setPacketHandled(true);
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(input);
+        deflater.finish();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2);
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            output.write(buffer, 0, count);
+        }
+        deflater.end();
+        return output.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] input, int length) {
+        Inflater inflater = new Inflater();
+        inflater.setInput(input);
+
+        byte[] output = new byte[length];
+        try {
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int count = inflater.inflate(output, offset, length - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != length) {
+                throw new IllegalStateException("Sync entries payload is truncated");
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Could not decompress sync entries payload", ex);
+        } finally {
+            inflater.end();
+        }
+        return output;
+    }
+}
@@ -57,6 +57,7 @@ public class SyncGearCraftingItemsPacket {
                 ((AbstractGearPart) part).updateCraftingItems(ingredient);
             }
         });
+        PartManager.invalidateIngredientIndex();
         context.get().setPacketHandled(true);
     }
 }
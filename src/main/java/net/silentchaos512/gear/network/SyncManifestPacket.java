@@ -0,0 +1,94 @@
+package net.silentchaos512.gear.network;
+
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Login packet which lists the IDs and content hashes of every entry of one data type, instead of
+ * the entries themselves. The client answers with a {@link Reply} listing the entries it could not
+ * find in its cache, which the server sends with {@link SyncEntriesPacket} once the player joins.
+ */
+public class SyncManifestPacket extends LoginPacket {
+    private final SyncDataType<?> type;
+    private final List<ResourceLocation> ids;
+    private final long[] hashes;
+
+    public SyncManifestPacket(SyncDataType<?> type, List<ResourceLocation> ids, long[] hashes) {
+        this.type = type;
+        this.ids = ids;
+        this.hashes = hashes;
+    }
+
+    public static SyncManifestPacket fromBytes(PacketBuffer buf) {
+        SyncDataType<?> type = SyncDataType.byIndex(buf.readByte());
+        int count = buf.readVarInt();
+        List<ResourceLocation> ids = new ArrayList<>(count);
+        long[] hashes = new long[count];
+
+        for (int i = 0; i < count; ++i) {
+            ids.add(buf.readResourceLocation());
+            hashes[i] = buf.readLong();
+        }
+
+        return new SyncManifestPacket(type, ids, hashes);
+    }
+
+    public void toBytes(PacketBuffer buf) {
+        buf.writeByte(this.type.getIndex());
+        buf.writeVarInt(this.ids.size());
+        for (int i = 0; i < this.ids.size(); ++i) {
+            buf.writeResourceLocation(this.ids.get(i));
+            buf.writeLong(this.hashes[i]);
+        }
+    }
+
+    public SyncDataType<?> getType() {
+        return type;
+    }
+
+    public List<ResourceLocation> getIds() {
+        return Collections.unmodifiableList(ids);
+    }
+
+    public long getHash(int index) {
+        return hashes[index];
+    }
+
+    public static class Reply extends LoginPacket.Reply {
+        private final SyncDataType<?> type;
+        private final List<ResourceLocation> missing;
+
+        public Reply(SyncDataType<?> type, List<ResourceLocation> missing) {
+            this.type = type;
+            this.missing = missing;
+        }
+
+        public static Reply fromBytes(PacketBuffer buf) {
+            SyncDataType<?> type = SyncDataType.byIndex(buf.readByte());
+            int count = buf.readVarInt();
+            List<ResourceLocation> missing = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                missing.add(buf.readResourceLocation());
+            }
+            return new Reply(type, missing);
+        }
+
+        public void toBytes(PacketBuffer buf) {
+            buf.writeByte(this.type.getIndex());
+            buf.writeVarInt(this.missing.size());
+            this.missing.forEach(buf::writeResourceLocation);
+        }
+
+        @Override
+        public void handle(Supplier<NetworkEvent.Context> context) {
+            DeltaSync.onManifestReply(this.type, this.missing, context.get().getNetworkManager());
+            super.handle(context);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package net.silentchaos512.gear.util;
+
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.inventory.EquipmentSlotType;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.common.Mod;
+import net.silentchaos512.gear.SilentGear;
+import net.silentchaos512.gear.api.item.ICoreArmor;
+import net.silentchaos512.gear.api.item.ICoreItem;
+import net.silentchaos512.gear.api.traits.ITrait;
+import net.silentchaos512.gear.compat.curios.CuriosCompat;
+import net.silentchaos512.gear.gear.trait.TraitManager;
+import net.silentchaos512.gear.item.gear.CoreArmor;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Totals of an entity's equipped gear: magic armor, plus the highest level of each trait in either
+ * hand and in curio slots and how many armor pieces have each trait. Aggregates are built once and
+ * reused until the entity's equipment changes ({@link LivingEquipmentChangeEvent}, which also
+ * fires when an equipped item's NBT changes), its curios change, or traits are reloaded.
+ * <p>
+ * Only server-side entities are cached, since equipment change events do not fire on the client.
+ * Traits are indexed by {@link TraitManager#getOrdinal(ResourceLocation) ordinal}, like {@link
+ * GearView}.
+ */
+@Mod.EventBusSubscriber(modid = SilentGear.MOD_ID)
+public final class EquipmentAggregate {
+    private static final EquipmentSlotType[] ARMOR_SLOTS = {
+            EquipmentSlotType.HEAD, EquipmentSlotType.CHEST, EquipmentSlotType.LEGS, EquipmentSlotType.FEET
+    };
+
+    // Server thread only
+    private static final Map<LivingEntity, EquipmentAggregate> CACHE = new WeakHashMap<>();
+    private static volatile int generation = 0;
+
+    private final int aggregateGeneration;
+    private final float magicArmor;
+    private final int[] handLevels;
+    private final int[] curioLevels;
+    private final int[] setPieceCounts;
+
+    private EquipmentAggregate(LivingEntity entity) {
+        int traitCount = TraitManager.getOrdinalCount();
+        this.aggregateGeneration = generation;
+        this.handLevels = new int[traitCount];
+        this.curioLevels = new int[traitCount];
+        this.setPieceCounts = new int[traitCount];
+
+        addHighestLevels(entity.getItemStackFromSlot(EquipmentSlotType.MAINHAND), this.handLevels);
+        addHighestLevels(entity.getItemStackFromSlot(EquipmentSlotType.OFFHAND), this.handLevels);
+
+        float magicArmorTotal = 0f;
+        for (EquipmentSlotType slot : ARMOR_SLOTS) {
+            ItemStack stack = entity.getItemStackFromSlot(slot);
+            if (stack.getItem() instanceof CoreArmor) {
+                magicArmorTotal += ((CoreArmor) stack.getItem()).getArmorMagicProtection(stack);
+            }
+            if (stack.getItem() instanceof ICoreArmor) {
+                // Traits can appear more than once in the list, but each piece counts once
+                BitSet counted = new BitSet(traitCount);
+                GearView view = GearData.getView(stack);
+                for (int i = 0; i < view.getTraitCount(); ++i) {
+                    int ordinal = getOrdinal(view.getTrait(i));
+                    if (ordinal >= 0 && ordinal < traitCount && !counted.get(ordinal)) {
+                        counted.set(ordinal);
+                        ++this.setPieceCounts[ordinal];
+                    }
+                }
+            }
+        }
+        this.magicArmor = magicArmorTotal;
+
+        if (ModList.get().isLoaded(Const.CURIOS)) {
+            for (ItemStack stack : CuriosCompat.getEquippedCurios(entity)) {
+                addHighestLevels(stack, this.curioLevels);
+            }
+        }
+    }
+
+    /**
+     * Gets the equipment totals for the entity, rebuilding them if the equipment has changed.
+     *
+     * @param entity The entity
+     * @return The entity's equipment totals
+     */
+    public static EquipmentAggregate get(LivingEntity entity) {
+        if (entity.world.isRemote) {
+            return new EquipmentAggregate(entity);
+        }
+
+        EquipmentAggregate aggregate = CACHE.get(entity);
+        if (aggregate == null || aggregate.aggregateGeneration != generation) {
+            aggregate = new EquipmentAggregate(entity);
+            CACHE.put(entity, aggregate);
+        }
+        return aggregate;
+    }
+
+    /**
+     * Discards the entity's totals, so they are rebuilt the next time they are needed. Equipment
+     * changes are detected automatically, this only needs to be called for other slots (curios).
+     *
+     * @param entity The entity
+     */
+    public static void invalidate(LivingEntity entity) {
+        if (!entity.world.isRemote) {
+            CACHE.remove(entity);
+        }
+    }
+
+    /**
+     * Discards the totals of all entities. Called when traits are reloaded, since trait ordinals
+     * change.
+     */
+    public static void invalidateAll() {
+        ++generation;
+    }
+
+    @SubscribeEvent
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        invalidate(event.getEntityLiving());
+    }
+
+    public float getMagicArmor() {
+        return magicArmor;
+    }
+
+    public int getHighestLevelEitherHand(DataResource<ITrait> trait) {
+        return getValue(this.handLevels, trait.getId());
+    }
+
+    public int getHighestLevelCurio(DataResource<ITrait> trait) {
+        return getValue(this.curioLevels, trait.getId());
+    }
+
+    /**
+     * Gets the number of armor pieces which have the trait at any level.
+     *
+     * @param trait The trait
+     * @return The number of armor pieces with the trait, zero to four
+     */
+    public int getSetPieceCount(ITrait trait) {
+        return getValue(this.setPieceCounts, trait.getId());
+    }
+
+    private static int getValue(int[] values, ResourceLocation traitId) {
+        int ordinal = TraitManager.getOrdinal(traitId);
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : 0;
+    }
+
+    private static int getOrdinal(ITrait trait) {
+        return TraitManager.getOrdinal(trait.getId());
+    }
+
+    private static void addHighestLevels(ItemStack stack, int[] levels) {
+        if (!(stack.getItem() instanceof ICoreItem)) return;
+
+        GearView view = GearData.getView(stack);
+        for (int i = 0; i < view.getTraitCount(); ++i) {
+            int ordinal = getOrdinal(view.getTrait(i));
+            if (ordinal >= 0 && ordinal < levels.length) {
+                levels[ordinal] = Math.max(levels[ordinal], view.getTraitLevel(i));
+            }
+        }
+    }
+}
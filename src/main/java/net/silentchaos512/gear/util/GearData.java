@@ -1,5 +1,6 @@
 package net.silentchaos512.gear.util;
 
+import com.google.common.hash.Hashing;
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.crash.ReportedException;
@@ -30,7 +31,6 @@ import net.silentchaos512.gear.config.Config;
 import net.silentchaos512.gear.gear.material.MaterialInstance;
 import net.silentchaos512.gear.gear.part.CompoundPart;
 import net.silentchaos512.gear.gear.part.PartData;
-import net.silentchaos512.gear.gear.part.PartManager;
 import net.silentchaos512.gear.gear.trait.EnchantmentTrait;
 import net.silentchaos512.gear.item.CompoundPartItem;
 import net.silentchaos512.lib.collection.StackList;
@@ -57,6 +57,7 @@ public final class GearData {
     private static final String NBT_LOCK_STATS = "LockStats";
     private static final String NBT_IS_EXAMPLE = "IsExample";
     private static final String NBT_MODEL_KEY = "ModelKey";
+    private static final String NBT_MODEL_FINGERPRINT = "ModelFingerprint";
     private static final String NBT_SYNERGY = "synergy";
     private static final String NBT_TIER = "Tier";
     private static final String NBT_UUID = "SGear_UUID";
@@ -64,6 +65,7 @@ public final class GearData {
     private static final String NBT_BROKEN_COUNT = "BrokenCount";
     private static final String NBT_REPAIR_COUNT = "RepairCount";
     private static final String NBT_STATS = "Stats";
+    private static final String NBT_TRAITS = "Traits";
 
     private GearData() {
         throw new IllegalAccessError("Utility class");
@@ -166,7 +168,8 @@ public final class GearData {
             // Cache traits in properties compound as well
             ListNBT traitList = new ListNBT();
             traits.forEach((trait, level) -> traitList.add(trait.write(level)));
-            propertiesCompound.put("Traits", traitList);
+            propertiesCompound.put(NBT_TRAITS, traitList);
+            GearView.invalidate(gear.getOrCreateChildTag(NBT_ROOT));
 
             propertiesCompound.remove(NBT_SYNERGY);
 
@@ -232,6 +235,34 @@ public final class GearData {
         return animationFrame > 0 ? key + "_" + animationFrame : key;
     }
 
+    /**
+     * Gets a 64-bit hash of the model key, which is stored with the key when stats are
+     * recalculated. Used as a baked model cache key, so the key string does not need to be built
+     * for every render.
+     *
+     * @param stack The gear item
+     * @return The model fingerprint
+     */
+    public static long getModelFingerprint(ItemStack stack) {
+        CompoundNBT nbt = getData(stack, NBT_ROOT_RENDERING);
+        if (nbt.contains(NBT_MODEL_FINGERPRINT, Constants.NBT.TAG_LONG)) {
+            return nbt.getLong(NBT_MODEL_FINGERPRINT);
+        }
+        // Not recalculated since fingerprints were added
+        return hashModelKey(getModelKey(stack, 0));
+    }
+
+    /**
+     * Hashes a model key into a 64-bit fingerprint. Used for gear, compound part and fragment
+     * model keys alike, so all baked model cache keys are computed the same way.
+     *
+     * @param modelKey The model key
+     * @return The model fingerprint
+     */
+    public static long hashModelKey(String modelKey) {
+        return Hashing.murmur3_128().hashUnencodedChars(modelKey).asLong();
+    }
+
     private static String calculateModelKey(ItemStack stack, Collection<? extends IPartData> parts) {
         StringBuilder s = new StringBuilder(SilentGear.shortenId(NameUtils.fromItem(stack)) + ":");
 
@@ -249,28 +280,32 @@ public final class GearData {
         nbt.remove("ArmorColor");
         nbt.remove("BlendedHeadColor");
 
-        nbt.putString(NBT_MODEL_KEY, calculateModelKey(stack, parts));
+        String modelKey = calculateModelKey(stack, parts);
+        nbt.putString(NBT_MODEL_KEY, modelKey);
+        nbt.putLong(NBT_MODEL_FINGERPRINT, hashModelKey(modelKey));
 
         // Remove old model keys
         stack.getOrCreateChildTag(NBT_ROOT).remove("ModelKeys");
     }
 
     public static StatModifierMap getStatModifiers(ItemStack stack, ICoreItem item, PartDataList parts) {
-        GearType gearType = item.getGearType();
         StatModifierMap stats = new StatModifierMap();
+        List<PartContributionCache.Contribution> contributions = new ArrayList<>(parts.size());
+        for (PartData part : parts) {
+            contributions.add(PartContributionCache.get(part, stack));
+        }
+
         for (ItemStat stat : ItemStats.allStatsOrderedExcluding(item.getExcludedStats(stack))) {
-            parts.forEach(part -> {
-                StatGearKey itemKey = StatGearKey.of(stat, gearType);
-                part.getStatModifiers(itemKey, stack).forEach(mod -> stats.put(mod.getKey(), mod.copy()));
-            });
+            for (PartContributionCache.Contribution contribution : contributions) {
+                contribution.getStatModifiers(stat).forEach(mod -> stats.put(mod.getKey(), mod.copy()));
+            }
         }
         return stats;
     }
 
     public static float getStat(ItemStack stack, IItemStat stat) {
-        CompoundNBT tags = getData(stack, NBT_ROOT_PROPERTIES).getCompound(NBT_STATS);
-        String key = stat.getStatId().toString();
-        return tags.contains(key) ? tags.getFloat(key) : stat.getDefaultValue();
+        if (checkNonGearItem(stack, "getStat")) return stat.getDefaultValue();
+        return getView(stack).getStat(stat.getStatId(), stat.getDefaultValue());
     }
 
     public static int getStatInt(ItemStack stack, IItemStat stat) {
@@ -285,25 +320,35 @@ public final class GearData {
         getData(stack, NBT_ROOT_PROPERTIES).putBoolean(NBT_LOCK_STATS, lock);
     }
 
+    /**
+     * Gets a mutable copy of the gear's construction parts. If the list does not need to be
+     * modified, {@link #getView(ItemStack)} avoids the copy.
+     *
+     * @param stack The gear item
+     * @return A new list of the construction parts
+     */
     public static PartDataList getConstructionParts(ItemStack stack) {
         if (!GearHelper.isGear(stack)) return PartDataList.empty();
+        return PartDataList.of(getView(stack).getParts());
+    }
 
-        CompoundNBT tags = getData(stack, NBT_ROOT_CONSTRUCTION);
-        ListNBT tagList = tags.getList(NBT_CONSTRUCTION_PARTS, Constants.NBT.TAG_COMPOUND);
-        PartDataList list = PartDataList.of();
-
-        for (INBT nbt : tagList) {
-            if (nbt instanceof CompoundNBT) {
-                CompoundNBT partCompound = (CompoundNBT) nbt;
-                PartData part = PartData.read(partCompound);
-
-                if (part != null) {
-                    list.add(part);
-                }
-            }
-        }
+    /**
+     * Gets the decoded view of the gear's construction parts, stats and traits. The view is cached until
+     * the construction parts or stats are rewritten, so this is much cheaper than reading the NBT
+     * again.
+     *
+     * @param gear The gear item
+     * @return The gear view
+     */
+    public static GearView getView(ItemStack gear) {
+        if (!GearHelper.isGear(gear)) return GearView.EMPTY;
 
-        return list;
+        CompoundNBT rootTag = gear.getOrCreateChildTag(NBT_ROOT);
+        INBT partsNbt = rootTag.getCompound(NBT_ROOT_CONSTRUCTION).get(NBT_CONSTRUCTION_PARTS);
+        CompoundNBT propertiesTag = rootTag.getCompound(NBT_ROOT_PROPERTIES);
+        INBT statsNbt = propertiesTag.get(NBT_STATS);
+        INBT traitsNbt = propertiesTag.get(NBT_TRAITS);
+        return GearView.get(rootTag, partsNbt, statsNbt, traitsNbt);
     }
 
     @Deprecated
@@ -322,14 +367,7 @@ public final class GearData {
 
         CompoundNBT data = getData(gear, NBT_ROOT_CONSTRUCTION);
         if (!data.contains(NBT_TIER)) {
-            List<PartData> parts = getConstructionParts(gear).getMains();
-            int max = 0;
-            for (PartData part : parts) {
-                if (part.getTier() > max) {
-                    max = part.getTier();
-                }
-            }
-            data.putInt(NBT_TIER, max);
+            data.putInt(NBT_TIER, getView(gear).getHighestMainTier());
         }
         return data.getInt(NBT_TIER);
     }
@@ -424,19 +462,8 @@ public final class GearData {
      */
     @Nullable
     public static PartData getPartOfType(ItemStack stack, PartType type) {
-        CompoundNBT tags = getData(stack, NBT_ROOT_CONSTRUCTION);
-        ListNBT tagList = tags.getList(NBT_CONSTRUCTION_PARTS, Constants.NBT.TAG_COMPOUND);
-
-        for (int i = 0; i < tagList.size(); ++i) {
-            CompoundNBT nbt = tagList.getCompound(i);
-            PartData part = PartData.read(nbt);
-
-            if (part != null && part.getType() == type) {
-                return part;
-            }
-        }
-
-        return null;
+        if (checkNonGearItem(stack, "getPartOfType")) return null;
+        return getView(stack).getPartOfType(type);
     }
 
     /**
@@ -447,20 +474,8 @@ public final class GearData {
      * @return True if and only if the construction parts include a part of the given type
      */
     public static boolean hasPartOfType(ItemStack stack, PartType type) {
-        CompoundNBT tags = getData(stack, NBT_ROOT_CONSTRUCTION);
-        ListNBT tagList = tags.getList(NBT_CONSTRUCTION_PARTS, Constants.NBT.TAG_COMPOUND);
-
-        for (int i = 0; i < tagList.size(); ++i) {
-            CompoundNBT nbt = tagList.getCompound(i);
-            String key = nbt.getString("ID");
-            IGearPart part = PartManager.get(key);
-
-            if (part != null && part.getType() == type) {
-                return true;
-            }
-        }
-
-        return false;
+        if (checkNonGearItem(stack, "hasPartOfType")) return false;
+        return getView(stack).hasPartOfType(type);
     }
 
     /**
@@ -501,7 +516,9 @@ public final class GearData {
     }
 
     public static boolean hasPart(ItemStack gear, PartType partType, Predicate<PartData> predicate) {
-        for (PartData partData : getConstructionParts(gear)) {
+        if (!GearHelper.isGear(gear)) return false;
+
+        for (PartData partData : getView(gear).getParts()) {
             if (predicate.test(partData)) {
                 return true;
             }
@@ -510,8 +527,8 @@ public final class GearData {
     }
 
     /**
-     * Determine if the gear has the specified part. This scans the construction NBT directly for
-     * speed, no part data list is created. Compares part registry names only.
+     * Determine if the gear has the specified part. This checks the cached gear view, no part data
+     * list is created. Compares part registry names only.
      *
      * @param gear The gear item
      * @param part The part to check for
@@ -519,22 +536,7 @@ public final class GearData {
      */
     public static boolean hasPart(ItemStack gear, IGearPart part) {
         if (checkNonGearItem(gear, "hasPart")) return false;
-
-        CompoundNBT tags = getData(gear, NBT_ROOT_CONSTRUCTION);
-        ListNBT tagList = tags.getList(NBT_CONSTRUCTION_PARTS, Constants.NBT.TAG_COMPOUND);
-        String upgradeName = part.getId().toString();
-
-        for (INBT nbt : tagList) {
-            if (nbt instanceof CompoundNBT) {
-                CompoundNBT partCompound = (CompoundNBT) nbt;
-                String partKey = partCompound.getString(PartData.NBT_ID);
-                if (partKey.equals(upgradeName)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return getView(gear).hasPart(part);
     }
 
     public static Optional<PartData> addOrReplacePart(ItemStack gear, PartData part) {
@@ -622,6 +624,7 @@ public final class GearData {
                 .forEach(tagList::add);
 
         tags.put(NBT_CONSTRUCTION_PARTS, tagList);
+        GearView.invalidate(gear.getOrCreateChildTag(NBT_ROOT));
     }
 
     //endregion
@@ -18,51 +18,70 @@
 
 package net.silentchaos512.gear.util;
 
+import com.google.common.collect.ImmutableList;
 import net.minecraft.item.ItemStack;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.item.GearType;
 import net.silentchaos512.gear.api.item.ICoreItem;
 import net.silentchaos512.gear.api.item.ICoreTool;
+import net.silentchaos512.gear.api.material.IMaterial;
 import net.silentchaos512.gear.api.part.IGearPart;
 import net.silentchaos512.gear.api.part.PartDataList;
 import net.silentchaos512.gear.api.part.PartType;
+import net.silentchaos512.gear.gear.material.MaterialInstance;
+import net.silentchaos512.gear.gear.material.MaterialManager;
 import net.silentchaos512.gear.gear.part.PartData;
 import net.silentchaos512.gear.gear.part.PartManager;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Creates gear with random parts and materials. The parts and materials which may be selected for
+ * each gear type, part type and tier are collected into pools the first time they are needed, and
+ * reused until parts or materials are reloaded (see {@link #invalidatePools()}).
+ */
 public final class GearGenerator {
+    private static final Map<PoolKey, PartPool> PART_POOLS = new ConcurrentHashMap<>();
+    private static final Map<PoolKey, List<IMaterial>> MATERIAL_POOLS = new ConcurrentHashMap<>();
+
     private GearGenerator() {
         throw new IllegalAccessError("Utility class");
     }
 
+    public static void invalidatePools() {
+        PART_POOLS.clear();
+        MATERIAL_POOLS.clear();
+    }
+
     public static Optional<PartData> getRandomPart(GearType gearType, PartType type) {
         return getRandomPart(gearType, type, -1);
     }
 
     public static Optional<PartData> getRandomPart(GearType gearType, PartType partType, final int partTier) {
-        Optional<PartData> optional = partType.getCompoundPartItem(gearType)
-                .map(item -> PartManager.from(new ItemStack(item)))
-                .map(part -> part.randomizeData(gearType, partTier));
-
-        if (!optional.isPresent()) {
-            // No compound part available? Try to find a simple part.
-            List<IGearPart> partsOfTier = PartManager.getValues().stream()
-                    .filter(part -> partTier == -1 || partTier == part.getTier())
-                    .collect(Collectors.toList());
-
-            if (!partsOfTier.isEmpty()) {
-                IGearPart random = partsOfTier.get(SilentGear.RANDOM.nextInt(partsOfTier.size()));
-                return Optional.of(random.randomizeData(gearType, partTier));
-            } else if (partTier != -1) {
-                return getRandomPart(gearType, partType, -1);
-            }
-            return Optional.empty();
-        }
+        return getPartPool(gearType, partType, partTier).next(SilentGear.RANDOM);
+    }
 
-        return optional;
+    /**
+     * Gets the materials which random compound parts of the given type and tier may be made of.
+     * Child materials are only included for tier zero, otherwise they are selected separately.
+     *
+     * @param gearType The gear type
+     * @param partType The part type
+     * @param tier     The material tier, or -1 for any tier
+     * @return Immutable list of materials, which may be empty
+     */
+    public static List<IMaterial> getMaterialPool(GearType gearType, PartType partType, int tier) {
+        return MATERIAL_POOLS.computeIfAbsent(new PoolKey(gearType, partType, tier), key ->
+                MaterialManager.getValues(tier == 0).stream()
+                        .filter(m -> tier < 0 || tier == m.getTier(partType))
+                        .filter(m -> m.allowedInPart(partType) && m.isCraftingAllowed(MaterialInstance.of(m), partType, gearType))
+                        .collect(ImmutableList.toImmutableList()));
+    }
+
+    private static PartPool getPartPool(GearType gearType, PartType partType, int tier) {
+        return PART_POOLS.computeIfAbsent(new PoolKey(gearType, partType, tier), PartPool::new);
     }
 
     public static ItemStack create(ICoreItem item, int minTier, int maxTier) {
@@ -75,33 +94,143 @@ public final class GearGenerator {
         return randomizeParts(new ItemStack(item), tier);
     }
 
+    /**
+     * Creates several random gear items of the same tier. Part pools are looked up once for the
+     * whole batch, and stats are calculated in one pass after all items have their parts.
+     *
+     * @param item   The gear item
+     * @param tier   The target tier
+     * @param count  The number of items to create
+     * @param random Random used to select parts and materials
+     * @return The created items. May be fewer than count if parts could not be found.
+     */
+    public static List<ItemStack> createBatch(ICoreItem item, int tier, int count, Random random) {
+        Generator generator = new Generator(item, tier);
+        List<ItemStack> list = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            ItemStack stack = generator.randomizeParts(new ItemStack(item), random);
+            if (!stack.isEmpty()) {
+                list.add(stack);
+            }
+        }
+
+        for (ItemStack stack : list) {
+            GearData.recalculateStats(stack, null);
+        }
+        return list;
+    }
+
     public static ItemStack randomizeParts(ItemStack stack, int tier) {
         if (!(stack.getItem() instanceof ICoreItem)) {
             throw new RuntimeException("Called GearGenerator.randomizeParts on non-gear");
         }
-        ICoreItem item = (ICoreItem) stack.getItem();
-        GearType gearType = item.getGearType();
-        PartDataList parts = PartDataList.of();
 
-        for (PartType partType : item.getRequiredParts()) {
-            getRandomPart(gearType, partType, tier).ifPresent(parts::add);
+        ItemStack result = new Generator((ICoreItem) stack.getItem(), tier).randomizeParts(stack, SilentGear.RANDOM);
+        if (!result.isEmpty()) {
+            GearData.recalculateStats(result, null);
         }
+        return result;
+    }
 
-        if (parts.isEmpty()) {
-            return ItemStack.EMPTY;
+    private static final class Generator {
+        private final ICoreItem item;
+        private final int tier;
+        private final List<PartPool> requiredParts = new ArrayList<>();
+        private final PartPool tips;
+
+        private Generator(ICoreItem item, int tier) {
+            GearType gearType = item.getGearType();
+            this.item = item;
+            this.tier = tier;
+            for (PartType partType : item.getRequiredParts()) {
+                this.requiredParts.add(getPartPool(gearType, partType, tier));
+            }
+            this.tips = getPartPool(gearType, PartType.TIP, tier);
         }
 
-        ItemStack result = stack.copy();
-        parts.forEach(p -> p.onAddToGear(result));
-        GearData.writeConstructionParts(result, parts);
+        // Adds random parts, but does not calculate stats
+        private ItemStack randomizeParts(ItemStack stack, Random random) {
+            PartDataList parts = PartDataList.of();
 
-        // Apply some random upgrades?
-        if (item instanceof ICoreTool && tier > 1 && SilentGear.RANDOM.nextFloat() < 0.2f * tier + 0.1f) {
-            getRandomPart(gearType, PartType.TIP, tier).ifPresent(part ->
-                    GearData.addUpgradePart(result, part));
+            for (PartPool pool : this.requiredParts) {
+                pool.next(random).ifPresent(parts::add);
+            }
+
+            if (parts.isEmpty()) {
+                return ItemStack.EMPTY;
+            }
+
+            ItemStack result = stack.copy();
+            parts.forEach(p -> p.onAddToGear(result));
+            GearData.writeConstructionParts(result, parts);
+
+            // Apply some random upgrades?
+            if (item instanceof ICoreTool && tier > 1 && random.nextFloat() < 0.2f * tier + 0.1f) {
+                tips.next(random).ifPresent(part ->
+                        GearData.addUpgradePart(result, part));
+            }
+
+            return result;
         }
+    }
 
-        GearData.recalculateStats(result, null);
-        return result;
+    private static final class PartPool {
+        private final PoolKey key;
+        // The compound part of this type, if there is one, which is given random materials
+        @Nullable private final IGearPart compoundPart;
+        // Otherwise, simple parts of this type and tier
+        private final List<IGearPart> simpleParts;
+
+        private PartPool(PoolKey key) {
+            this.key = key;
+            this.compoundPart = key.partType.getCompoundPartItem(key.gearType)
+                    .map(item -> PartManager.from(new ItemStack(item)))
+                    .orElse(null);
+            this.simpleParts = this.compoundPart != null
+                    ? ImmutableList.of()
+                    : PartManager.getValues().stream()
+                    .filter(part -> key.tier == -1 || key.tier == part.getTier())
+                    .filter(part -> part.getType() == key.partType && part.isCraftingAllowed(PartData.of(part), key.partType, key.gearType, null))
+                    .collect(ImmutableList.toImmutableList());
+        }
+
+        private Optional<PartData> next(Random random) {
+            if (compoundPart != null) {
+                return Optional.of(compoundPart.randomizeData(key.gearType, key.tier, random));
+            }
+
+            if (!simpleParts.isEmpty()) {
+                IGearPart part = simpleParts.get(random.nextInt(simpleParts.size()));
+                return Optional.of(part.randomizeData(key.gearType, key.tier, random));
+            } else if (key.tier != -1) {
+                return getPartPool(key.gearType, key.partType, -1).next(random);
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static final class PoolKey {
+        private final GearType gearType;
+        private final PartType partType;
+        private final int tier;
+
+        private PoolKey(GearType gearType, PartType partType, int tier) {
+            this.gearType = gearType;
+            this.partType = partType;
+            this.tier = tier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PoolKey other = (PoolKey) o;
+            return gearType == other.gearType && partType == other.partType && tier == other.tier;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * gearType.hashCode() + partType.hashCode()) + tier;
+        }
     }
 }
@@ -67,6 +67,9 @@ public final class GearHelper {
     private static final float BROKEN_ATTACK_SPEED_CHANGE = 0.7f;
     private static final float BROKEN_DESTROY_SPEED = 0.25f;
 
+    // Last extra reach target of each player. Used from both the client and server threads.
+    private static final Map<PlayerEntity, ReachTarget> REACH_TARGETS = Collections.synchronizedMap(new WeakHashMap<>());
+
     private GearHelper() {}
 
     public static Optional<ICoreItem> getItem(ItemStack gear) {
@@ -342,7 +345,7 @@ public final class GearHelper {
     }
 
     private static void damageParts(ItemStack stack, int amount) {
-        GearData.getConstructionParts(stack).forEach(p -> p.get().onGearDamaged(p, stack, amount));
+        GearData.getView(stack).getParts().forEach(p -> p.get().onGearDamaged(p, stack, amount));
     }
 
     //endregion
@@ -376,7 +379,7 @@ public final class GearHelper {
             return false;
         }
 
-        List<PartData> parts1 = GearData.getConstructionParts(gear1);
+        List<PartData> parts1 = GearData.getView(gear1).getParts();
         List<PartData> parts2 = GearData.getConstructionParts(gear2);
         if (parts1.size() != parts2.size()) {
             return false;
@@ -455,9 +458,16 @@ public final class GearHelper {
 
     // Formerly onUpdate
     public static void inventoryTick(ItemStack stack, World world, Entity entity, int itemSlot, boolean isSelected) {
-        if (!world.isRemote) {
-            @Nullable PlayerEntity player = entity instanceof PlayerEntity ? (PlayerEntity) entity : null;
-            TraitHelper.tickTraits(world, player, stack, isSelected);
+        // Traits of gear in player inventories are updated by TraitTickScheduler
+        if (!world.isRemote && !(entity instanceof PlayerEntity)) {
+            TraitHelper.tickTraits(world, null, stack, isSelected);
+        }
+    }
+
+    public static void curioTick(ItemStack stack, LivingEntity wearer) {
+        if (!wearer.world.isRemote) {
+            @Nullable PlayerEntity player = wearer instanceof PlayerEntity ? (PlayerEntity) wearer : null;
+            TraitHelper.tickTraits(wearer.world, player, stack, true);
         }
     }
 
@@ -517,6 +527,32 @@ public final class GearHelper {
     @Nullable
     private static Entity tryAttackWithExtraReach(PlayerEntity player, boolean simulate) {
         // Attempt to attack something if wielding a weapon with increased melee range
+        Entity entity = getExtraReachTarget(player);
+        if (entity != null && !simulate) {
+            player.attackTargetEntityWithCurrentItem(entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Gets the entity targeted with extra reach. The target can only change once per tick, but the
+     * HUD asks for it every frame, so the result is reused for the rest of the tick as long as the
+     * player holds the same item.
+     */
+    @Nullable
+    private static Entity getExtraReachTarget(PlayerEntity player) {
+        ReachTarget cached = REACH_TARGETS.get(player);
+        if (cached != null && cached.isValid(player)) {
+            return cached.target;
+        }
+
+        Entity target = findExtraReachTarget(player);
+        REACH_TARGETS.put(player, new ReachTarget(player, target));
+        return target;
+    }
+
+    @Nullable
+    private static Entity findExtraReachTarget(PlayerEntity player) {
         double range = getAttackRange(player);
         Vector3d vector3d = player.getEyePosition(0f);
         double rangeSquared = range * range;
@@ -529,15 +565,28 @@ public final class GearHelper {
             return !entity.isSpectator() && entity.canBeCollidedWith();
         }, rangeSquared);
 
-        if (rayTrace != null) {
-            Entity entity = rayTrace.getEntity();
-            if (!simulate) {
-                player.attackTargetEntityWithCurrentItem(entity);
-            }
-            return entity;
+        return rayTrace != null ? rayTrace.getEntity() : null;
+    }
+
+    private static final class ReachTarget {
+        private final World world;
+        private final long gameTime;
+        private final ItemStack heldItem;
+        @Nullable private final Entity target;
+
+        private ReachTarget(PlayerEntity player, @Nullable Entity target) {
+            this.world = player.world;
+            this.gameTime = player.world.getGameTime();
+            this.heldItem = player.getHeldItemMainhand();
+            this.target = target;
         }
 
-        return null;
+        private boolean isValid(PlayerEntity player) {
+            return player.world == this.world
+                    && player.world.getGameTime() == this.gameTime
+                    && player.getHeldItemMainhand() == this.heldItem
+                    && (this.target == null || this.target.isAlive());
+        }
     }
 
     private static double getAttackRange(LivingEntity entity) {
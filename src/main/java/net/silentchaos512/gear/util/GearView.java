@@ -0,0 +1,198 @@
+package net.silentchaos512.gear.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraftforge.common.util.Constants;
+import net.minecraft.util.ResourceLocation;
+import net.silentchaos512.gear.api.part.IGearPart;
+import net.silentchaos512.gear.api.part.PartType;
+import net.silentchaos512.gear.api.traits.ITrait;
+import net.silentchaos512.gear.gear.part.PartData;
+import net.silentchaos512.gear.gear.trait.TraitManager;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * A decoded, read-only view of a gear item's construction parts, stats and traits. Views are cached
+ * by the identity of the item's {@code SGear_Data} compound, so repeated getter calls on the same
+ * stack do not need to walk and re-parse the NBT. A view is discarded when the parts list, stats
+ * compound or traits list it was decoded from is replaced, when {@link #invalidate(CompoundNBT)} is
+ * called, or when parts or traits are reloaded.
+ * <p>
+ * Traits are indexed by their {@link TraitManager#getOrdinal(ResourceLocation) ordinal}, so trait
+ * checks do not need any string comparisons.
+ */
+public final class GearView {
+    private static final Cache<CompoundNBT, GearView> CACHE = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    static final GearView EMPTY = new GearView(null, null, null);
+
+    @Nullable private final INBT partsNbt;
+    @Nullable private final INBT statsNbt;
+    @Nullable private final INBT traitsNbt;
+    private final List<PartData> parts;
+    private final Map<ResourceLocation, Float> stats = new HashMap<>();
+    private final ITrait[] traits;
+    private final int[] traitLevels;
+    private final BitSet traitPresence;
+    private final int[] traitLevelsByOrdinal;
+    private int highestMainTier = -1;
+
+    private GearView(@Nullable INBT partsNbt, @Nullable INBT statsNbt, @Nullable INBT traitsNbt) {
+        this.partsNbt = partsNbt;
+        this.statsNbt = statsNbt;
+        this.traitsNbt = traitsNbt;
+
+        ImmutableList.Builder<PartData> partsBuilder = ImmutableList.builder();
+        if (partsNbt instanceof ListNBT && ((ListNBT) partsNbt).getTagType() == Constants.NBT.TAG_COMPOUND) {
+            for (INBT nbt : (ListNBT) partsNbt) {
+                PartData part = PartData.read((CompoundNBT) nbt);
+                if (part != null) {
+                    partsBuilder.add(part);
+                }
+            }
+        }
+        this.parts = partsBuilder.build();
+
+        if (statsNbt instanceof CompoundNBT) {
+            CompoundNBT statsCompound = (CompoundNBT) statsNbt;
+            for (String key : statsCompound.keySet()) {
+                ResourceLocation id = ResourceLocation.tryCreate(key);
+                if (id != null) {
+                    this.stats.put(id, statsCompound.getFloat(key));
+                }
+            }
+        }
+
+        List<ITrait> traitList = new ArrayList<>();
+        List<Integer> levelList = new ArrayList<>();
+        this.traitPresence = new BitSet();
+        this.traitLevelsByOrdinal = new int[TraitManager.getOrdinalCount()];
+        if (traitsNbt instanceof ListNBT && ((ListNBT) traitsNbt).getTagType() == Constants.NBT.TAG_COMPOUND) {
+            for (INBT nbt : (ListNBT) traitsNbt) {
+                CompoundNBT traitCompound = (CompoundNBT) nbt;
+                ResourceLocation id = ResourceLocation.tryCreate(traitCompound.getString("Name"));
+                ITrait trait = id != null ? TraitManager.get(id) : null;
+                int ordinal = id != null ? TraitManager.getOrdinal(id) : -1;
+
+                if (trait != null && ordinal >= 0 && ordinal < this.traitLevelsByOrdinal.length) {
+                    int level = traitCompound.getByte("Level");
+                    traitList.add(trait);
+                    levelList.add(level);
+                    if (!this.traitPresence.get(ordinal)) {
+                        this.traitPresence.set(ordinal);
+                        this.traitLevelsByOrdinal[ordinal] = level;
+                    }
+                }
+            }
+        }
+        this.traits = traitList.toArray(new ITrait[0]);
+        this.traitLevels = levelList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static GearView get(CompoundNBT rootNbt, @Nullable INBT partsNbt, @Nullable INBT statsNbt, @Nullable INBT traitsNbt) {
+        GearView view = CACHE.getIfPresent(rootNbt);
+        if (view == null || view.partsNbt != partsNbt || view.statsNbt != statsNbt || view.traitsNbt != traitsNbt) {
+            view = new GearView(partsNbt, statsNbt, traitsNbt);
+            CACHE.put(rootNbt, view);
+        }
+        return view;
+    }
+
+    static void invalidate(CompoundNBT rootNbt) {
+        CACHE.invalidate(rootNbt);
+    }
+
+    /**
+     * Discards all cached views. Called when gear parts or traits are reloaded, since views hold
+     * references to part and trait objects.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Gets the construction parts. Mains are always first.
+     *
+     * @return Immutable list of parts
+     */
+    public List<PartData> getParts() {
+        return parts;
+    }
+
+    @Nullable
+    public PartData getPartOfType(PartType type) {
+        for (PartData part : parts) {
+            if (part.getType() == type) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    public boolean hasPartOfType(PartType type) {
+        return getPartOfType(type) != null;
+    }
+
+    public boolean hasPart(IGearPart part) {
+        for (PartData partData : parts) {
+            if (partData.get() == part || partData.getId().equals(part.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getHighestMainTier() {
+        if (highestMainTier < 0) {
+            int max = 0;
+            for (PartData part : parts) {
+                if (part.getType() == PartType.MAIN) {
+                    max = Math.max(max, part.getTier());
+                }
+            }
+            highestMainTier = max;
+        }
+        return highestMainTier;
+    }
+
+    public float getStat(ResourceLocation statId, float defaultValue) {
+        Float value = stats.get(statId);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean hasTrait(ResourceLocation traitId) {
+        int ordinal = TraitManager.getOrdinal(traitId);
+        return ordinal >= 0 && traitPresence.get(ordinal);
+    }
+
+    public int getTraitLevel(ResourceLocation traitId) {
+        int ordinal = TraitManager.getOrdinal(traitId);
+        return ordinal >= 0 && ordinal < traitLevelsByOrdinal.length ? traitLevelsByOrdinal[ordinal] : 0;
+    }
+
+    /**
+     * Gets the number of trait entries, in the order they are stored on the item. Use with {@link
+     * #getTrait(int)} and {@link #getTraitLevel(int)} to iterate without allocating.
+     *
+     * @return The number of traits
+     */
+    public int getTraitCount() {
+        return traits.length;
+    }
+
+    public ITrait getTrait(int index) {
+        return traits[index];
+    }
+
+    public int getTraitLevel(int index) {
+        return traitLevels[index];
+    }
+}
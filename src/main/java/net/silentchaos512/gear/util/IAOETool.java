@@ -25,10 +25,13 @@ import net.minecraft.block.BlockState;
 import net.minecraft.client.renderer.ActiveRenderInfo;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.ItemEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraft.network.play.server.SChangeBlockPacket;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.server.management.PlayerInteractionManager;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
@@ -36,6 +39,7 @@ import net.minecraft.util.math.BlockRayTraceResult;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.util.math.shapes.ISelectionContext;
 import net.minecraft.util.math.shapes.VoxelShape;
+import net.minecraft.util.math.shapes.VoxelShapes;
 import net.minecraft.util.math.vector.Matrix4f;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.world.World;
@@ -45,15 +49,25 @@ import net.minecraftforge.client.event.DrawHighlightEvent;
 import net.minecraftforge.common.ForgeHooks;
 import net.minecraftforge.common.Tags;
 import net.minecraftforge.common.ToolType;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
+import net.minecraftforge.fml.network.PacketDistributor;
+import net.minecraftforge.items.ItemHandlerHelper;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.config.Config;
+import net.silentchaos512.gear.network.MessageExtraBlockBreak;
+import net.silentchaos512.gear.network.Network;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Supplier;
 
 public interface IAOETool {
     /**
@@ -130,7 +144,7 @@ public interface IAOETool {
         // Prevent breaking of unbreakable blocks, like bedrock
         if (state2.getBlockHardness(world, pos2) < 0) return;
 
-        if (!world.isAirBlock(pos2)
+        if (!state2.isAir(world, pos2)
                 && BreakHandler.areBlocksSimilar(state1, state2)
                 && (state2.getBlock().isToolEffective(state2, getAOEToolClass()) || stack.getItem().canHarvestBlock(stack, state2))) {
             list.add(pos2);
@@ -144,8 +158,15 @@ public interface IAOETool {
     /**
      * Handles actual AOE block breaking. Call {@link #onBlockStartBreak(ItemStack, BlockPos,
      * PlayerEntity)} inside the {@code onBlockStartBreak} method of the tool's item.
+     * <p>
+     * Extra blocks are broken as a batch. Item drops from the whole batch are captured, merged into
+     * as few stacks as possible, then spawned once the batch is done.
      */
+    @Mod.EventBusSubscriber(modid = SilentGear.MOD_ID)
     final class BreakHandler {
+        // Set only while a batch is being broken on the server thread
+        private static final ThreadLocal<DropBatch> CAPTURED_DROPS = new ThreadLocal<>();
+
         private BreakHandler() {}
 
         public static boolean onBlockStartBreak(ItemStack tool, BlockPos pos, PlayerEntity player) {
@@ -160,33 +181,131 @@ public interface IAOETool {
             if (rt != null && rt.getType() == RayTraceResult.Type.BLOCK && item.isEffectiveOnBlock(tool, world, pos, stateOriginal, player)) {
                 BlockRayTraceResult brt = (BlockRayTraceResult) rt;
                 Direction side = brt.getFace();
-                List<BlockPos> extraBlocks = item.getExtraBlocks(world, brt, player, tool);
-
-                for (BlockPos pos2 : extraBlocks) {
-                    BlockState state = world.getBlockState(pos2);
-                    if (!world.isBlockLoaded(pos2) || !player.canPlayerEdit(pos2, side, tool) || !(state.canHarvestBlock(world, pos2, player)))
-                        continue;
-
-                    if (player.abilities.isCreativeMode) {
-                        if (state.removedByPlayer(world, pos2, player, true, state.getFluidState()))
-                            state.getBlock().onPlayerDestroy(world, pos2, state);
-                    } else {
-                        int xp = ForgeHooks.onBlockBreakEvent(world, ((ServerPlayerEntity) player).interactionManager.getGameType(), (ServerPlayerEntity) player, pos2);
-                        if (xp == -1) continue;
-                        tool.getItem().onBlockDestroyed(tool, world, state, pos2, player);
-                        TileEntity tileEntity = world.getTileEntity(pos2);
-                        if (state.removedByPlayer(world, pos2, player, true, state.getFluidState())) {
-                            state.getBlock().onPlayerDestroy(world, pos2, state);
-                            state.getBlock().harvestBlock(world, player, pos2, state, tileEntity, tool);
-                            state.getBlock().dropXpOnBlockBreak((ServerWorld) world, pos2, xp);
+                // The original block is broken normally once this returns
+                Collection<BlockPos> extraBlocks = new LinkedHashSet<>(ExtraBlocksCache.get(item, world, brt, player, tool).getPositions());
+                extraBlocks.remove(pos);
+
+                runBatch(world, () -> {
+                    for (BlockPos pos2 : extraBlocks) {
+                        if (!world.isBlockLoaded(pos2) || !player.canPlayerEdit(pos2, side, tool))
+                            continue;
+
+                        BlockState state = world.getBlockState(pos2);
+                        if (state.canHarvestBlock(world, pos2, player)) {
+                            breakExtraBlock((ServerWorld) world, pos2, state, tool, (ServerPlayerEntity) player);
                         }
                     }
+                });
+            }
+            return false;
+        }
+
+        /**
+         * Runs an action which breaks or harvests several blocks on the server. Item entities spawned
+         * while it runs are captured, merged into as few stacks as possible, and spawned once the
+         * action is done. Block changes are sent to clients by the chunk manager, which already
+         * combines changes in the same chunk section into a single packet.
+         * <p>
+         * Nested batches add their drops to the outermost batch.
+         *
+         * @param world  The world
+         * @param action Breaks the blocks
+         */
+        public static void runBatch(World world, Runnable action) {
+            runBatch(world, () -> {
+                action.run();
+                return null;
+            });
+        }
+
+        /**
+         * Same as {@link #runBatch(World, Runnable)}, but returns the result of the action.
+         *
+         * @param world  The world
+         * @param action Breaks the blocks
+         * @param <T>    The type of result
+         * @return The result of the action
+         */
+        public static <T> T runBatch(World world, Supplier<T> action) {
+            if (world.isRemote || CAPTURED_DROPS.get() != null) {
+                return action.get();
+            }
 
+            DropBatch batch = new DropBatch(world);
+            T result;
+            CAPTURED_DROPS.set(batch);
+            try {
+                result = action.get();
+            } finally {
+                CAPTURED_DROPS.remove();
+            }
+            spawnMergedDrops(batch.drops);
+            return result;
+        }
+
+        private static void breakExtraBlock(ServerWorld world, BlockPos pos, BlockState state, ItemStack tool, ServerPlayerEntity player) {
+            if (player.abilities.isCreativeMode) {
+                if (state.removedByPlayer(world, pos, player, true, state.getFluidState())) {
+                    state.getBlock().onPlayerDestroy(world, pos, state);
                     world.playEvent(2001, pos, Block.getStateId(state));
-                    ((ServerPlayerEntity) player).connection.sendPacket(new SChangeBlockPacket(world, pos));
                 }
+                return;
+            }
+
+            int xp = ForgeHooks.onBlockBreakEvent(world, player.interactionManager.getGameType(), player, pos);
+            if (xp == -1) return;
+
+            tool.getItem().onBlockDestroyed(tool, world, state, pos, player);
+            TileEntity tileEntity = world.getTileEntity(pos);
+            if (state.removedByPlayer(world, pos, player, true, state.getFluidState())) {
+                state.getBlock().onPlayerDestroy(world, pos, state);
+                state.getBlock().harvestBlock(world, player, pos, state, tileEntity, tool);
+                state.getBlock().dropXpOnBlockBreak(world, pos, xp);
+                world.playEvent(2001, pos, Block.getStateId(state));
+            }
+        }
+
+        private static void spawnMergedDrops(List<ItemEntity> drops) {
+            List<ItemEntity> merged = new ArrayList<>();
+            for (ItemEntity drop : drops) {
+                ItemStack stack = drop.getItem();
+                for (ItemEntity target : merged) {
+                    ItemStack targetStack = target.getItem();
+                    if (ItemHandlerHelper.canItemStacksStack(targetStack, stack)) {
+                        int count = Math.min(stack.getCount(), targetStack.getMaxStackSize() - targetStack.getCount());
+                        if (count > 0) {
+                            target.setItem(ItemHandlerHelper.copyStackWithSize(targetStack, targetStack.getCount() + count));
+                            stack.shrink(count);
+                        }
+                    }
+                    if (stack.isEmpty()) break;
+                }
+
+                if (!stack.isEmpty()) {
+                    drop.setItem(stack);
+                    merged.add(drop);
+                }
+            }
+            merged.forEach(drop -> drop.world.addEntity(drop));
+        }
+
+        @SubscribeEvent
+        public static void onEntityJoinWorld(EntityJoinWorldEvent event) {
+            DropBatch batch = CAPTURED_DROPS.get();
+            // Items spawned in other worlds while the batch runs are left alone
+            if (batch != null && event.getWorld() == batch.world && event.getEntity() instanceof ItemEntity) {
+                batch.drops.add((ItemEntity) event.getEntity());
+                event.setCanceled(true);
+            }
+        }
+
+        private static final class DropBatch {
+            private final World world;
+            private final List<ItemEntity> drops = new ArrayList<>();
+
+            private DropBatch(World world) {
+                this.world = world;
             }
-            return false;
         }
 
         /**
@@ -224,6 +343,231 @@ public interface IAOETool {
         }
     }
 
+    /**
+     * Remembers the extra blocks of each player's latest AOE query for the rest of the game tick.
+     * The highlight is drawn every frame, so this keeps {@link #getExtraBlocks(World,
+     * BlockRayTraceResult, PlayerEntity, ItemStack)} from running more than once per tick while the
+     * player aims at the same block with the same tool. The break handler uses the same cache.
+     * <p>
+     * Entries only hold weak references to the world and player, and are discarded when their
+     * world unloads (which includes disconnecting), so a stale entry never keeps a world alive.
+     */
+    @Mod.EventBusSubscriber(modid = SilentGear.MOD_ID)
+    final class ExtraBlocksCache {
+        // Client thread only
+        @Nullable private static Entry clientEntry;
+        // Server thread only
+        private static final Map<PlayerEntity, Entry> SERVER_ENTRIES = new WeakHashMap<>();
+
+        private ExtraBlocksCache() {}
+
+        public static Entry get(IAOETool item, World world, BlockRayTraceResult rt, PlayerEntity player, ItemStack stack) {
+            BlockState state = world.getBlockState(rt.getPos());
+            Entry entry = world.isRemote ? clientEntry : SERVER_ENTRIES.get(player);
+
+            if (entry == null || !entry.matches(world, rt, player, stack, state)) {
+                entry = new Entry(world, rt, player, stack, state, item.getExtraBlocks(world, rt, player, stack));
+                if (world.isRemote) {
+                    clientEntry = entry;
+                } else {
+                    SERVER_ENTRIES.put(player, entry);
+                }
+            }
+            return entry;
+        }
+
+        @SubscribeEvent
+        public static void onWorldUnload(WorldEvent.Unload event) {
+            if (event.getWorld().isRemote()) {
+                clientEntry = null;
+            } else {
+                SERVER_ENTRIES.values().removeIf(entry -> entry.world.get() == event.getWorld());
+            }
+        }
+
+        public static final class Entry {
+            private final WeakReference<World> world;
+            private final long gameTime;
+            private final BlockPos pos;
+            private final Direction face;
+            private final WeakReference<PlayerEntity> player;
+            private final boolean crouching;
+            private final Item item;
+            @Nullable private final CompoundNBT tag;
+            private final BlockState state;
+            private final List<BlockPos> positions;
+            @Nullable private VoxelShape outline;
+
+            private Entry(World world, BlockRayTraceResult rt, PlayerEntity player, ItemStack stack, BlockState state, List<BlockPos> positions) {
+                this.world = new WeakReference<>(world);
+                this.gameTime = world.getGameTime();
+                this.pos = rt.getPos().toImmutable();
+                this.face = rt.getFace();
+                this.player = new WeakReference<>(player);
+                this.crouching = player.isCrouching();
+                this.item = stack.getItem();
+                this.tag = stack.getTag();
+                this.state = state;
+                this.positions = Collections.unmodifiableList(positions);
+            }
+
+            private boolean matches(World world, BlockRayTraceResult rt, PlayerEntity player, ItemStack stack, BlockState state) {
+                return this.world.get() == world
+                        && this.gameTime == world.getGameTime()
+                        && this.pos.equals(rt.getPos())
+                        && this.face == rt.getFace()
+                        && this.player.get() == player
+                        && this.crouching == player.isCrouching()
+                        && this.item == stack.getItem()
+                        && this.tag == stack.getTag()
+                        && this.state == state;
+            }
+
+            public BlockPos getPos() {
+                return pos;
+            }
+
+            /**
+             * Gets the extra blocks which would be broken along with the targeted block.
+             *
+             * @return Unmodifiable list of positions, not including the targeted block
+             */
+            public List<BlockPos> getPositions() {
+                return positions;
+            }
+
+            /**
+             * Gets the combined selection shape of the targeted block and all extra blocks,
+             * relative to the targeted block. Computed the first time it is needed.
+             *
+             * @param context The selection context
+             * @return The merged shape
+             */
+            public VoxelShape getOutline(ISelectionContext context) {
+                World world = this.world.get();
+                if (world == null) {
+                    return VoxelShapes.empty();
+                }
+                if (outline == null) {
+                    VoxelShape shape = state.getShape(world, pos, context);
+                    for (BlockPos pos2 : positions) {
+                        VoxelShape shape2 = world.getBlockState(pos2).getShape(world, pos2, context);
+                        shape = VoxelShapes.or(shape, shape2.withOffset(pos2.getX() - pos.getX(), pos2.getY() - pos.getY(), pos2.getZ() - pos.getZ()));
+                    }
+                    outline = shape;
+                }
+                return outline;
+            }
+        }
+    }
+
+    /**
+     * Sends the break progress of AOE tools' extra blocks to the breaker and nearby players, so
+     * cracks can be drawn on them (see {@link MessageExtraBlockBreak}). Vanilla only tracks the
+     * progress of the block being mined, so it is read from the player's interaction manager each
+     * tick. A packet is only sent when the stage or the mined block changes.
+     */
+    @Mod.EventBusSubscriber(modid = SilentGear.MOD_ID)
+    final class ProgressTracker {
+        // Server thread only
+        private static final Map<PlayerEntity, SentProgress> SENT_PROGRESS = new WeakHashMap<>();
+
+        @Nullable private static Field isDestroyingBlockField;
+        @Nullable private static Field destroyPosField;
+        @Nullable private static Field durabilityRemainingField;
+        private static boolean fieldsInitialized;
+
+        private ProgressTracker() {}
+
+        @SubscribeEvent
+        public static void onPlayerTick(TickEvent.PlayerTickEvent event) {
+            if (event.phase != TickEvent.Phase.END || !(event.player instanceof ServerPlayerEntity)) return;
+
+            ServerPlayerEntity player = (ServerPlayerEntity) event.player;
+            ItemStack tool = player.getHeldItemMainhand();
+            SentProgress sent = SENT_PROGRESS.get(player);
+
+            if (!(tool.getItem() instanceof IAOETool) || !initFields()) {
+                clear(player, sent);
+                return;
+            }
+
+            BlockPos pos;
+            int stage;
+            try {
+                if (!isDestroyingBlockField.getBoolean(player.interactionManager)) {
+                    clear(player, sent);
+                    return;
+                }
+                pos = (BlockPos) destroyPosField.get(player.interactionManager);
+                stage = durabilityRemainingField.getInt(player.interactionManager);
+            } catch (IllegalAccessException ex) {
+                return;
+            }
+
+            if (pos == null || stage < 0 || stage > 9) {
+                clear(player, sent);
+                return;
+            }
+            if (sent != null && sent.stage == stage && sent.pos.equals(pos)) {
+                return;
+            }
+
+            IAOETool item = (IAOETool) tool.getItem();
+            RayTraceResult rt = item.rayTraceBlocks(player.world, player);
+            if (rt == null || rt.getType() != RayTraceResult.Type.BLOCK || !((BlockRayTraceResult) rt).getPos().equals(pos)) {
+                clear(player, sent);
+                return;
+            }
+
+            List<BlockPos> positions = ExtraBlocksCache.get(item, player.world, (BlockRayTraceResult) rt, player, tool).getPositions();
+            if (positions.isEmpty()) {
+                clear(player, sent);
+                return;
+            }
+
+            SENT_PROGRESS.put(player, new SentProgress(pos.toImmutable(), stage));
+            Network.channel.send(PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> player),
+                    new MessageExtraBlockBreak(player.getEntityId(), stage, pos, positions));
+        }
+
+        private static void clear(ServerPlayerEntity player, @Nullable SentProgress sent) {
+            if (sent != null) {
+                SENT_PROGRESS.remove(player);
+                Network.channel.send(PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> player),
+                        MessageExtraBlockBreak.clear(player.getEntityId(), sent.pos));
+            }
+        }
+
+        private static boolean initFields() {
+            if (!fieldsInitialized) {
+                fieldsInitialized = true;
+                try {
+                    isDestroyingBlockField = ObfuscationReflectionHelper.findField(PlayerInteractionManager.class, "field_73088_d");
+                    destroyPosField = ObfuscationReflectionHelper.findField(PlayerInteractionManager.class, "field_180240_f");
+                    durabilityRemainingField = ObfuscationReflectionHelper.findField(PlayerInteractionManager.class, "field_73094_o");
+                } catch (Exception ex) {
+                    SilentGear.LOGGER.error("Failed to get block breaking fields via reflection, AOE break progress will not be shown");
+                    SilentGear.LOGGER.catching(ex);
+                    isDestroyingBlockField = null;
+                    destroyPosField = null;
+                    durabilityRemainingField = null;
+                }
+            }
+            return isDestroyingBlockField != null && destroyPosField != null && durabilityRemainingField != null;
+        }
+
+        private static final class SentProgress {
+            private final BlockPos pos;
+            private final int stage;
+
+            private SentProgress(BlockPos pos, int stage) {
+                this.pos = pos;
+                this.stage = stage;
+            }
+        }
+    }
+
     @Mod.EventBusSubscriber(modid = SilentGear.MOD_ID, value = Dist.CLIENT)
     final class HighlightHandler {
         private HighlightHandler() {}
@@ -244,23 +588,21 @@ public interface IAOETool {
                 if (stack.getItem() instanceof IAOETool) {
                     World world = player.getEntityWorld();
                     IAOETool item = (IAOETool) stack.getItem();
+                    ExtraBlocksCache.Entry entry = ExtraBlocksCache.get(item, world, (BlockRayTraceResult) rt, player, stack);
 
-                    for (BlockPos pos : item.getExtraBlocks(world, (BlockRayTraceResult) rt, player, stack)) {
+                    if (!entry.getPositions().isEmpty()) {
+                        // Draw one outline around the whole area, including the targeted block
+                        VoxelShape outline = entry.getOutline(ISelectionContext.forEntity(entity));
                         IVertexBuilder vertexBuilder = event.getBuffers().getBuffer(RenderType.getLines());
-                        Vector3d vec = event.getInfo().getProjectedView();
-                        BlockState blockState = world.getBlockState(pos);
-                        drawSelectionBox(event.getMatrix(), world, vertexBuilder, event.getInfo().getRenderViewEntity(), vec.x, vec.y, vec.z, pos, blockState);
+                        Vector3d vec = info.getProjectedView();
+                        BlockPos pos = entry.getPos();
+                        drawShape(event.getMatrix(), vertexBuilder, outline, pos.getX() - vec.x, pos.getY() - vec.y, pos.getZ() - vec.z, 0.0F, 0.0F, 0.0F, 0.4F);
+                        event.setCanceled(true);
                     }
                 }
             }
         }
 
-        // Copied from WorldRenderer
-        @SuppressWarnings("MethodWithTooManyParameters")
-        private static void drawSelectionBox(MatrixStack matrixStackIn, World world, IVertexBuilder bufferIn, Entity entityIn, double xIn, double yIn, double zIn, BlockPos blockPosIn, BlockState blockStateIn) {
-            drawShape(matrixStackIn, bufferIn, blockStateIn.getShape(world, blockPosIn, ISelectionContext.forEntity(entityIn)), (double)blockPosIn.getX() - xIn, (double)blockPosIn.getY() - yIn, (double)blockPosIn.getZ() - zIn, 0.0F, 0.0F, 0.0F, 0.4F);
-        }
-
         // Copied from WorldRenderer
         @SuppressWarnings("MethodWithTooManyParameters")
         private static void drawShape(MatrixStack matrixStackIn, IVertexBuilder bufferIn, VoxelShape shapeIn, double xIn, double yIn, double zIn, float red, float green, float blue, float alpha) {
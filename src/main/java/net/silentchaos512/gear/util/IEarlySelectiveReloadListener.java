@@ -13,10 +13,18 @@ import java.util.function.Predicate;
 public interface IEarlySelectiveReloadListener extends IFutureReloadListener {
     @Override
     default CompletableFuture<Void> reload(IFutureReloadListener.IStage stage, IResourceManager resourceManager, IProfiler preparationsProfiler, IProfiler reloadProfiler, Executor backgroundExecutor, Executor gameExecutor) {
-        return CompletableFuture.runAsync(() -> {
-            this.onResourceManagerReload(resourceManager, SelectiveReloadStateHandler.INSTANCE.get());
-        }, backgroundExecutor).thenCompose(stage::markCompleteAwaitingOthers);
+        return this.reloadEarly(resourceManager, SelectiveReloadStateHandler.INSTANCE.get(), backgroundExecutor)
+                .thenCompose(stage::markCompleteAwaitingOthers);
     }
 
-    void onResourceManagerReload(IResourceManager resourceManager, Predicate<IResourceType> predicate);
+    /**
+     * Loads everything, before waiting on other listeners. Work should be done on the background
+     * executor.
+     *
+     * @param resourceManager    The resource manager
+     * @param predicate          Which resource types are being reloaded
+     * @param backgroundExecutor The background executor
+     * @return Future which completes when loading is done
+     */
+    CompletableFuture<Void> reloadEarly(IResourceManager resourceManager, Predicate<IResourceType> predicate, Executor backgroundExecutor);
 }
@@ -0,0 +1,157 @@
+package net.silentchaos512.gear.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.Ingredient;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Reverse index from items to the objects whose ingredients might match them. Simple ingredients
+ * (those which only care about the item) are indexed by the items of their matching stacks.
+ * Anything else, such as NBT-sensitive ingredients, is kept in a fallback list which is always
+ * tested. Lookups return the same value a linear scan over the entries in insertion order would.
+ * <p>
+ * Ingredients may depend on tags, so indexes should be rebuilt whenever data or tags are reloaded.
+ *
+ * @param <T> The type of object being looked up
+ */
+public final class IngredientIndex<T> {
+    private final Map<Item, List<Entry<T>>> byItem = new HashMap<>();
+    private final List<Entry<T>> fallback = new ArrayList<>();
+    private int entryCount = 0;
+
+    /**
+     * Adds an entry to the index. Entries added first take priority when several match.
+     *
+     * @param ingredient The ingredient to match
+     * @param value      The value returned when the ingredient matches
+     */
+    public void add(Ingredient ingredient, T value) {
+        Entry<T> entry = new Entry<>(entryCount++, ingredient, value);
+
+        if (!ingredient.isSimple()) {
+            fallback.add(entry);
+            return;
+        }
+
+        for (ItemStack stack : ingredient.getMatchingStacks()) {
+            if (!stack.isEmpty()) {
+                List<Entry<T>> list = byItem.computeIfAbsent(stack.getItem(), item -> new ArrayList<>());
+                // Matching stacks may contain the same item more than once
+                if (list.isEmpty() || list.get(list.size() - 1) != entry) {
+                    list.add(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if any ingredient could not be indexed by item, such as NBT-sensitive ingredients. If
+     * not, lookups depend only on the item of the stack.
+     *
+     * @return True if there are entries which are tested against every stack
+     */
+    public boolean hasFallbackEntries() {
+        return !fallback.isEmpty();
+    }
+
+    /**
+     * Finds the first value (in insertion order) with an ingredient matching the stack.
+     *
+     * @param stack The stack to match
+     * @return The matching value, or null if nothing matches
+     */
+    @Nullable
+    public T get(ItemStack stack) {
+        if (stack.isEmpty()) return null;
+
+        List<Entry<T>> candidates = byItem.getOrDefault(stack.getItem(), Collections.emptyList());
+        int i = 0;
+        int j = 0;
+
+        // Merge the candidate and fallback lists by insertion order
+        while (i < candidates.size() || j < fallback.size()) {
+            Entry<T> entry;
+            if (j >= fallback.size() || (i < candidates.size() && candidates.get(i).order < fallback.get(j).order)) {
+                entry = candidates.get(i++);
+            } else {
+                entry = fallback.get(j++);
+            }
+
+            if (entry.ingredient.test(stack)) {
+                return entry.value;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * An index which is built on first use and rebuilt after being invalidated. Each built index
+     * remembers the generation it was started in, so an index built from old data while an
+     * invalidation was happening is never treated as current.
+     *
+     * @param <T> The type of object being looked up
+     */
+    public static final class Cached<T> {
+        private final AtomicInteger generation = new AtomicInteger();
+        private final AtomicReference<Built<T>> current = new AtomicReference<>();
+        private final Consumer<IngredientIndex<T>> builder;
+
+        /**
+         * @param builder Adds all entries to a new index, reading the current data
+         */
+        public Cached(Consumer<IngredientIndex<T>> builder) {
+            this.builder = builder;
+        }
+
+        public IngredientIndex<T> get() {
+            Built<T> built = current.get();
+            // Read before the data, so any invalidation from here on marks the new index stale
+            int currentGeneration = generation.get();
+            if (built != null && built.generation == currentGeneration) {
+                return built.index;
+            }
+
+            IngredientIndex<T> index = new IngredientIndex<>();
+            builder.accept(index);
+            current.compareAndSet(built, new Built<>(currentGeneration, index));
+            return index;
+        }
+
+        /**
+         * Discards the index. It will be rebuilt on the next lookup. Must be called after the
+         * new data is published.
+         */
+        public void invalidate() {
+            generation.incrementAndGet();
+        }
+    }
+
+    private static final class Built<T> {
+        private final int generation;
+        private final IngredientIndex<T> index;
+
+        private Built(int generation, IngredientIndex<T> index) {
+            this.generation = generation;
+            this.index = index;
+        }
+    }
+
+    private static final class Entry<T> {
+        private final int order;
+        private final Ingredient ingredient;
+        private final T value;
+
+        private Entry(int order, Ingredient ingredient, T value) {
+            this.order = order;
+            this.ingredient = ingredient;
+            this.value = value;
+        }
+    }
+}
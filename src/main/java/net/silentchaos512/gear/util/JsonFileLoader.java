@@ -0,0 +1,132 @@
+package net.silentchaos512.gear.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import net.minecraft.resources.IResource;
+import net.minecraft.resources.IResourceManager;
+import net.minecraft.util.JSONUtils;
+import net.minecraft.util.ResourceLocation;
+import net.silentchaos512.gear.SilentGear;
+import org.apache.commons.io.IOUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads and parses the JSON files of reload listeners in parallel. Files are listed and parsed on
+ * the background executor, one task per file. Results (including any errors) are returned in the
+ * same order the files are listed, so whatever consumes them can log and report errors in a
+ * deterministic order. Deserializing the parsed JSON is left to the caller.
+ */
+public final class JsonFileLoader {
+    private JsonFileLoader() {throw new IllegalAccessError("Utility class");}
+
+    /**
+     * Lists, reads and parses all JSON files in the data paths.
+     *
+     * @param resourceManager The resource manager
+     * @param gson            Gson instance used to parse the files
+     * @param executor        The executor to parse files on, normally the background executor
+     * @param dataPaths       The directories to search, in order. Each should have the same length.
+     * @return Future with the parsed files, in listing order
+     */
+    public static CompletableFuture<List<ParsedFile>> loadAll(IResourceManager resourceManager, Gson gson, Executor executor, String... dataPaths) {
+        return CompletableFuture.supplyAsync(() -> listFiles(resourceManager, dataPaths), executor).thenCompose(files -> {
+            long startTime = System.nanoTime();
+            List<CompletableFuture<ParsedFile>> futures = new ArrayList<>(files.size());
+            for (ResourceLocation file : files) {
+                futures.add(CompletableFuture.supplyAsync(() -> parse(resourceManager, gson, file, dataPaths[0].length()), executor));
+            }
+
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(v -> {
+                List<ParsedFile> list = new ArrayList<>(futures.size());
+                futures.forEach(future -> list.add(future.join()));
+                SilentGear.LOGGER.info("Parsed {} files in {} in {} ms", list.size(), dataPaths[0], getMillisSince(startTime));
+                return list;
+            });
+        });
+    }
+
+    public static long getMillisSince(long startNanoTime) {
+        return (System.nanoTime() - startNanoTime) / 1_000_000;
+    }
+
+    private static List<ResourceLocation> listFiles(IResourceManager resourceManager, String... dataPaths) {
+        List<ResourceLocation> list = new ArrayList<>();
+        for (String path : dataPaths) {
+            list.addAll(resourceManager.getAllResourceLocations(path, s -> s.endsWith(".json")));
+        }
+        return list;
+    }
+
+    private static ParsedFile parse(IResourceManager resourceManager, Gson gson, ResourceLocation file, int dataPathLength) {
+        String path = file.getPath().substring(dataPathLength + 1, file.getPath().length() - ".json".length());
+        ResourceLocation name = new ResourceLocation(file.getNamespace(), path);
+
+        String packName = "ERROR";
+        try (IResource iresource = resourceManager.getResource(file)) {
+            packName = iresource.getPackName();
+            JsonObject json = JSONUtils.fromJson(gson, IOUtils.toString(iresource.getInputStream(), StandardCharsets.UTF_8), JsonObject.class);
+            return new ParsedFile(file, name, packName, json, null);
+        } catch (IllegalArgumentException | JsonParseException | IOException ex) {
+            return new ParsedFile(file, name, packName, null, ex);
+        }
+    }
+
+    public static final class ParsedFile {
+        private final ResourceLocation file;
+        private final ResourceLocation name;
+        private final String packName;
+        @Nullable private final JsonObject json;
+        @Nullable private final Exception error;
+
+        private ParsedFile(ResourceLocation file, ResourceLocation name, String packName, @Nullable JsonObject json, @Nullable Exception error) {
+            this.file = file;
+            this.name = name;
+            this.packName = packName;
+            this.json = json;
+            this.error = error;
+        }
+
+        public ResourceLocation getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the object's ID, which is the file path without the data path and extension.
+         *
+         * @return The object ID
+         */
+        public ResourceLocation getName() {
+            return name;
+        }
+
+        public String getPackName() {
+            return packName;
+        }
+
+        /**
+         * Gets the parsed JSON, rethrowing any exception thrown while the file was read or parsed,
+         * so callers can handle errors the same way they would when reading the file themselves.
+         *
+         * @return The JSON object, or null if the file is empty
+         * @throws IOException If the file could not be read
+         */
+        @Nullable
+        public JsonObject readJson() throws IOException {
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            return json;
+        }
+    }
+}
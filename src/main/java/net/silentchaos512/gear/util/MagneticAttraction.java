@@ -0,0 +1,168 @@
+package net.silentchaos512.gear.util;
+
+import net.minecraft.entity.item.ItemEntity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.silentchaos512.gear.SilentGear;
+import net.silentchaos512.gear.config.Config;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Pulls item entities toward players with the magnetic trait. Players are collected during their
+ * ticks and all of them are handled together at the end of the server tick. Players whose ranges
+ * overlap are grouped, so each region is searched for items once no matter how many players are
+ * standing in it.
+ * <p>
+ * Pulls happen every {@code gear.magnetic.updateInterval} ticks, with the acceleration scaled to
+ * match, and at most {@code gear.magnetic.maxItemsPerUpdate} items are processed each time.
+ */
+@Mod.EventBusSubscriber(modid = SilentGear.MOD_ID)
+public final class MagneticAttraction {
+    private static final double ACCELERATION = 0.03;
+    // Pulls used to be applied at both the start and end of each player tick
+    private static final int PULLS_PER_TICK = 2;
+
+    // Server thread only
+    private static final Map<World, List<Puller>> PULLERS = new IdentityHashMap<>();
+    private static IntConsumer metricsListener = count -> {};
+
+    private MagneticAttraction() {throw new IllegalAccessError("Utility class");}
+
+    /**
+     * Sets a listener which receives the number of items moved each time items are pulled. Intended
+     * for profiling and debugging.
+     *
+     * @param listener The listener, or null to remove it
+     */
+    public static void setMetricsListener(@Nullable IntConsumer listener) {
+        metricsListener = listener != null ? listener : count -> {};
+    }
+
+    /**
+     * Check if items will be pulled this tick. Callers can skip looking up trait levels if not.
+     *
+     * @param world The world
+     * @return True if {@link #addPlayer(PlayerEntity, int)} should be called this tick
+     */
+    public static boolean isPullTick(World world) {
+        return !world.isRemote && world.getGameTime() % Config.Common.magneticUpdateInterval.get() == 0;
+    }
+
+    /**
+     * Queues a player to pull items toward them at the end of this tick.
+     *
+     * @param player        The player
+     * @param magneticLevel Level of the magnetic trait
+     */
+    public static void addPlayer(PlayerEntity player, int magneticLevel) {
+        if (player.isCrouching() || magneticLevel <= 0) return;
+        PULLERS.computeIfAbsent(player.world, w -> new ArrayList<>()).add(new Puller(player, magneticLevel));
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PULLERS.isEmpty()) return;
+
+        double strength = ACCELERATION * PULLS_PER_TICK * Config.Common.magneticUpdateInterval.get();
+        int budget = Config.Common.magneticMaxItemsPerUpdate.get();
+        int moved = 0;
+
+        for (Map.Entry<World, List<Puller>> entry : PULLERS.entrySet()) {
+            for (Cluster cluster : groupPullers(entry.getValue())) {
+                if (budget <= 0) break;
+
+                List<ItemEntity> items = entry.getKey().getEntitiesWithinAABB(ItemEntity.class, cluster.bounds, MagneticAttraction::canPull);
+                for (ItemEntity item : items) {
+                    if (budget-- <= 0) break;
+                    if (pull(item, cluster.pullers, strength)) {
+                        ++moved;
+                    }
+                }
+            }
+        }
+        PULLERS.clear();
+
+        metricsListener.accept(moved);
+    }
+
+    private static boolean canPull(ItemEntity entity) {
+        return entity.isAlive() && !entity.cannotPickup() && !entity.getPersistentData().getBoolean("PreventRemoteMovement");
+    }
+
+    private static boolean pull(ItemEntity item, List<Puller> pullers, double strength) {
+        boolean moved = false;
+        for (Puller puller : pullers) {
+            if (item.getDistanceSq(puller.player) < puller.rangeSq) {
+                // Accelerate to target point
+                Vector3d vec = item.func_230268_c_(puller.player).subtractReverse(puller.target);
+                vec = vec.normalize().scale(strength);
+                if (item.getPosY() < puller.target.y) {
+                    double xzDistanceSq = (item.getPosX() - puller.target.x) * (item.getPosX() - puller.target.x) + (item.getPosZ() - puller.target.z) * (item.getPosZ() - puller.target.z);
+                    vec = vec.add(0, (0.005 + xzDistanceSq / 1000) * strength / ACCELERATION, 0);
+                }
+                item.addVelocity(vec.x, vec.y, vec.z);
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    private static List<Cluster> groupPullers(List<Puller> pullers) {
+        List<Cluster> clusters = new ArrayList<>();
+        for (Puller puller : pullers) {
+            Cluster cluster = new Cluster(puller);
+
+            // Absorb every existing cluster that overlaps, so no region is searched twice
+            Iterator<Cluster> iterator = clusters.iterator();
+            while (iterator.hasNext()) {
+                Cluster other = iterator.next();
+                if (other.bounds.intersects(cluster.bounds)) {
+                    cluster.merge(other);
+                    iterator.remove();
+                    // The merged bounds may now reach clusters that were already checked
+                    iterator = clusters.iterator();
+                }
+            }
+            clusters.add(cluster);
+        }
+        return clusters;
+    }
+
+    private static final class Puller {
+        private final PlayerEntity player;
+        private final Vector3d target;
+        private final AxisAlignedBB bounds;
+        private final int rangeSq;
+
+        private Puller(PlayerEntity player, int magneticLevel) {
+            int range = magneticLevel * 3 + 1;
+            this.player = player;
+            this.target = new Vector3d(player.getPosX(), player.getPosYHeight(0.5), player.getPosZ());
+            this.bounds = new AxisAlignedBB(player.getPosX() - range, player.getPosY() - range, player.getPosZ() - range, player.getPosX() + range + 1, player.getPosY() + range + 1, player.getPosZ() + range + 1);
+            this.rangeSq = range * range;
+        }
+    }
+
+    private static final class Cluster {
+        private final List<Puller> pullers = new ArrayList<>(1);
+        private AxisAlignedBB bounds;
+
+        private Cluster(Puller puller) {
+            this.pullers.add(puller);
+            this.bounds = puller.bounds;
+        }
+
+        private void merge(Cluster other) {
+            this.pullers.addAll(other.pullers);
+            this.bounds = this.bounds.union(other.bounds);
+        }
+    }
+}
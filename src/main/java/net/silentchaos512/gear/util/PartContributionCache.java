@@ -0,0 +1,141 @@
+package net.silentchaos512.gear.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.silentchaos512.gear.api.item.GearType;
+import net.silentchaos512.gear.api.item.ICoreItem;
+import net.silentchaos512.gear.api.part.IGearPart;
+import net.silentchaos512.gear.api.stats.ItemStat;
+import net.silentchaos512.gear.api.stats.ItemStats;
+import net.silentchaos512.gear.api.stats.StatInstance;
+import net.silentchaos512.gear.api.traits.TraitInstance;
+import net.silentchaos512.gear.api.util.StatGearKey;
+import net.silentchaos512.gear.gear.part.PartData;
+import net.silentchaos512.gear.gear.part.PartEvaluationContext;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Memoizes what each part contributes to a gear item during stat recalculation: the stat modifiers
+ * for every stat and the part's traits. Contributions are keyed by the part, the gear item, and the
+ * part's crafting item (which holds the materials and grade), so recalculating an item only does
+ * real work for parts which have not been seen before. Swapping or repairing a single part leaves
+ * the other parts' contributions cached.
+ * <p>
+ * Because of this, {@link net.silentchaos512.gear.api.event.GetStatModifierEvent} and {@link
+ * net.silentchaos512.gear.api.event.GetMaterialStatsEvent} only fire during recalculation when a
+ * contribution is first computed. Must be invalidated whenever materials, parts or traits are
+ * reloaded, and by anything that changes what those event handlers return.
+ */
+public final class PartContributionCache {
+    private static final Cache<Key, Contribution> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(4096)
+            .build();
+
+    private PartContributionCache() {throw new IllegalAccessError("Utility class");}
+
+    public static Contribution get(PartData part, ItemStack gear) {
+        if (!(gear.getItem() instanceof ICoreItem)) {
+            return compute(part, gear);
+        }
+
+        // Only copy the part's NBT when the key needs to be stored
+        Contribution contribution = CACHE.getIfPresent(new Key(part, gear.getItem(), false));
+        if (contribution == null) {
+            contribution = compute(part, gear);
+            CACHE.put(new Key(part, gear.getItem(), true), contribution);
+        }
+        return contribution;
+    }
+
+    /**
+     * Discards all contributions, so they are computed (and {@link
+     * net.silentchaos512.gear.api.event.GetStatModifierEvent} and {@link
+     * net.silentchaos512.gear.api.event.GetMaterialStatsEvent} are fired) again on the next
+     * recalculation.
+     */
+    public static void invalidateAll() {
+        CACHE.invalidateAll();
+    }
+
+    private static Contribution compute(PartData part, ItemStack gear) {
+        GearType gearType = GearHelper.getType(gear, GearType.ALL);
+        PartEvaluationContext context = new PartEvaluationContext(part, gear);
+        ImmutableMap.Builder<ItemStat, List<StatInstance>> stats = ImmutableMap.builder();
+        for (ItemStat stat : ItemStats.allStatsOrdered()) {
+            Collection<StatInstance> mods = context.getStatModifiers(StatGearKey.of(stat, gearType));
+            if (!mods.isEmpty()) {
+                stats.put(stat, ImmutableList.copyOf(mods));
+            }
+        }
+        return new Contribution(stats.build(), ImmutableList.copyOf(context.getTraits()));
+    }
+
+    public static final class Contribution {
+        private final Map<ItemStat, List<StatInstance>> statModifiers;
+        private final List<TraitInstance> traits;
+
+        private Contribution(Map<ItemStat, List<StatInstance>> statModifiers, List<TraitInstance> traits) {
+            this.statModifiers = statModifiers;
+            this.traits = traits;
+        }
+
+        /**
+         * Gets the part's modifiers for the stat, keyed to the gear item's type. Modifiers are
+         * shared, so they should be copied before being stored elsewhere.
+         *
+         * @param stat The stat
+         * @return Immutable list of modifiers
+         */
+        public List<StatInstance> getStatModifiers(ItemStat stat) {
+            return statModifiers.getOrDefault(stat, ImmutableList.of());
+        }
+
+        public List<TraitInstance> getTraits() {
+            return traits;
+        }
+    }
+
+    private static final class Key {
+        private final IGearPart part;
+        private final Item gearItem;
+        private final Item partItem;
+        @Nullable private final CompoundNBT partTag;
+        private final int hash;
+
+        private Key(PartData part, Item gearItem, boolean copyTag) {
+            ItemStack craftingItem = part.getItem();
+            CompoundNBT tag = craftingItem.getTag();
+            this.part = part.get();
+            this.gearItem = gearItem;
+            this.partItem = craftingItem.getItem();
+            this.partTag = tag != null && copyTag ? tag.copy() : tag;
+            this.hash = Objects.hash(System.identityHashCode(this.part), this.gearItem, this.partItem, this.partTag);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key other = (Key) o;
+            return part == other.part
+                    && gearItem == other.gearItem
+                    && partItem == other.partItem
+                    && Objects.equals(partTag, other.partTag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package net.silentchaos512.gear.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.inventory.Inventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.FurnaceRecipe;
+import net.minecraft.item.crafting.IRecipeType;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.world.World;
+import net.minecraftforge.client.event.RecipesUpdatedEvent;
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.silentchaos512.gear.SilentGear;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Cached smelting recipe lookups. {@link RecipeManager#getRecipe} tests every smelting recipe,
+ * which adds up quickly when every drop of an AOE tool is smelted. Smelting recipes are indexed by
+ * ingredient with an {@link IngredientIndex}, and results (including no result) are remembered by
+ * item. Only vanilla furnace recipes are indexed, since their {@code matches} just tests the
+ * ingredient. Subclasses may override {@code matches}, so they are always tested with it. If any
+ * recipe is not indexed or has an NBT-sensitive ingredient, results are remembered by item and NBT
+ * instead.
+ * <p>
+ * Everything is discarded when recipes are reloaded.
+ */
+@Mod.EventBusSubscriber(modid = SilentGear.MOD_ID)
+public final class SmeltingCache {
+    private static final int MAX_NBT_ENTRIES = 1024;
+
+    // The client and the integrated server each have their own recipe manager
+    private static final Map<RecipeManager, Lookup> LOOKUPS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private SmeltingCache() {throw new IllegalAccessError("Utility class");}
+
+    /**
+     * Gets the output of the smelting recipe for the item, the same as looking the recipe up in the
+     * recipe manager and calling {@link FurnaceRecipe#getRecipeOutput()}.
+     *
+     * @param stack The item to smelt
+     * @param world The world, to get the recipe manager
+     * @return A copy of the smelting output, or an empty stack if the item cannot be smelted
+     */
+    public static ItemStack getResult(ItemStack stack, World world) {
+        if (stack.isEmpty()) return ItemStack.EMPTY;
+
+        RecipeManager recipeManager = world.getRecipeManager();
+        Lookup lookup = LOOKUPS.computeIfAbsent(recipeManager, Lookup::new);
+        return lookup.get(stack, world).copy();
+    }
+
+    public static void invalidateAll() {
+        LOOKUPS.clear();
+    }
+
+    @SubscribeEvent
+    public static void onAddReloadListeners(AddReloadListenerEvent event) {
+        invalidateAll();
+    }
+
+    @SubscribeEvent
+    public static void onRecipesUpdated(RecipesUpdatedEvent event) {
+        invalidateAll();
+    }
+
+    private static final class Lookup {
+        private final IngredientIndex<FurnaceRecipe> index = new IngredientIndex<>();
+        // Recipes which could match differently than their ingredient, tested with IRecipe#matches
+        private final List<FurnaceRecipe> unindexed = new ArrayList<>();
+        private final boolean nbtSensitive;
+        private final Map<Item, ItemStack> byItem = new HashMap<>();
+        private final Cache<Key, ItemStack> byItemAndNbt = CacheBuilder.newBuilder()
+                .maximumSize(MAX_NBT_ENTRIES)
+                .build();
+
+        private Lookup(RecipeManager recipeManager) {
+            for (FurnaceRecipe recipe : recipeManager.getRecipesForType(IRecipeType.SMELTING)) {
+                List<Ingredient> ingredients = recipe.getIngredients();
+                if (recipe.getClass() == FurnaceRecipe.class && ingredients.size() == 1) {
+                    index.add(ingredients.get(0), recipe);
+                } else {
+                    unindexed.add(recipe);
+                }
+            }
+            this.nbtSensitive = index.hasFallbackEntries() || !unindexed.isEmpty();
+        }
+
+        private synchronized ItemStack get(ItemStack stack, World world) {
+            if (!nbtSensitive) {
+                return byItem.computeIfAbsent(stack.getItem(), item -> find(new ItemStack(item), world));
+            }
+
+            Key key = new Key(stack);
+            ItemStack result = byItemAndNbt.getIfPresent(key);
+            if (result == null) {
+                result = find(stack, world);
+                byItemAndNbt.put(key, result);
+            }
+            return result;
+        }
+
+        private ItemStack find(ItemStack stack, World world) {
+            FurnaceRecipe recipe = index.get(stack);
+            if (recipe == null && !unindexed.isEmpty()) {
+                IInventory inventory = new Inventory(stack);
+                for (FurnaceRecipe other : unindexed) {
+                    if (other.matches(inventory, world)) {
+                        recipe = other;
+                        break;
+                    }
+                }
+            }
+            return recipe != null ? recipe.getRecipeOutput().copy() : ItemStack.EMPTY;
+        }
+    }
+
+    private static final class Key {
+        private final Item item;
+        @Nullable private final CompoundNBT tag;
+
+        private Key(ItemStack stack) {
+            this.item = stack.getItem();
+            this.tag = stack.getTag() != null ? stack.getTag().copy() : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key other = (Key) o;
+            return item == other.item && Objects.equals(tag, other.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * item.hashCode() + Objects.hashCode(tag);
+        }
+    }
+}
@@ -22,14 +22,10 @@ import com.google.common.collect.ImmutableMap;
 import net.minecraft.entity.LivingEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.CompoundNBT;
-import net.minecraft.nbt.INBT;
-import net.minecraft.nbt.ListNBT;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.ModList;
 import net.silentchaos512.gear.SilentGear;
 import net.silentchaos512.gear.api.event.GetTraitsEvent;
@@ -40,10 +36,8 @@ import net.silentchaos512.gear.api.traits.ITrait;
 import net.silentchaos512.gear.api.traits.TraitActionContext;
 import net.silentchaos512.gear.api.traits.TraitFunction;
 import net.silentchaos512.gear.api.traits.TraitInstance;
-import net.silentchaos512.gear.compat.curios.CuriosCompat;
 import net.silentchaos512.gear.gear.material.MaterialInstance;
 import net.silentchaos512.gear.gear.part.PartData;
-import net.silentchaos512.gear.gear.trait.TraitManager;
 
 import javax.annotation.Nullable;
 import java.util.*;
@@ -55,8 +49,8 @@ public final class TraitHelper {
      * An easy way to activate an item's traits from anywhere. <strong>Use with care!</strong>
      * Calling this frequently (like every render tick) causes FPS to tank.
      * <p>
-     * This implementation pulls the item's traits straight from NBT to minimize object creation.
-     * The {@link TraitFunction} is applied to every trait.
+     * This implementation reads the item's traits from its cached {@link GearView} to minimize
+     * object creation. The {@link TraitFunction} is applied to every trait.
      *
      * @param gear       The {@link net.silentchaos512.gear.api.item.ICoreItem} affected
      * @param inputValue The base value to have the traits act on.
@@ -72,20 +66,11 @@ public final class TraitHelper {
             return inputValue;
         }
 
-        ListNBT tagList = GearData.getPropertiesData(gear).getList("Traits", Constants.NBT.TAG_COMPOUND);
+        GearView view = GearData.getView(gear);
         float value = inputValue;
 
-        for (INBT nbt : tagList) {
-            if (nbt instanceof CompoundNBT) {
-                CompoundNBT tagCompound = (CompoundNBT) nbt;
-                String regName = tagCompound.getString("Name");
-                ITrait trait = TraitManager.get(regName);
-
-                if (trait != null) {
-                    int level = tagCompound.getByte("Level");
-                    value = action.apply(trait, level, value);
-                }
-            }
+        for (int i = 0; i < view.getTraitCount(); ++i) {
+            value = action.apply(view.getTrait(i), view.getTraitLevel(i), value);
         }
 
         return value;
@@ -93,8 +78,8 @@ public final class TraitHelper {
 
     /**
      * Gets the level of the trait on the gear, or zero if it does not have the trait. Similar to
-     * {@link #activateTraits(ItemStack, float, TraitFunction)}, this pulls the traits straight from
-     * NBT to minimize object creation.
+     * {@link #activateTraits(ItemStack, float, TraitFunction)}, this reads the cached trait index
+     * to minimize object creation.
      *
      * @param gear  The {@link net.silentchaos512.gear.api.item.ICoreItem}
      * @param trait The trait to look for
@@ -106,8 +91,8 @@ public final class TraitHelper {
 
     /**
      * Gets the level of the trait on the gear, or zero if it does not have the trait. Similar to
-     * {@link #activateTraits(ItemStack, float, TraitFunction)}, this pulls the traits straight from
-     * NBT to minimize object creation.
+     * {@link #activateTraits(ItemStack, float, TraitFunction)}, this reads the cached trait index
+     * to minimize object creation.
      *
      * @param gear  The {@link net.silentchaos512.gear.api.item.ICoreItem}
      * @param trait The trait to look for
@@ -127,17 +112,7 @@ public final class TraitHelper {
      */
     public static int getTraitLevel(ItemStack gear, ResourceLocation traitId) {
         if (GearHelper.isGear(gear)) {
-            ListNBT tagList = GearData.getPropertiesData(gear).getList("Traits", Constants.NBT.TAG_COMPOUND);
-
-            for (INBT nbt : tagList) {
-                if (nbt instanceof CompoundNBT) {
-                    CompoundNBT tagCompound = (CompoundNBT) nbt;
-                    String regName = tagCompound.getString("Name");
-                    if (regName.equals(traitId.toString())) {
-                        return tagCompound.getByte("Level");
-                    }
-                }
-            }
+            return GearData.getView(gear).getTraitLevel(traitId);
         }
 
         return 0;
@@ -169,26 +144,14 @@ public final class TraitHelper {
      */
     public static boolean hasTrait(ItemStack gear, ResourceLocation traitId) {
         if (GearHelper.isGear(gear)) {
-            ListNBT tagList = GearData.getPropertiesData(gear).getList("Traits", Constants.NBT.TAG_COMPOUND);
-
-            for (INBT nbt : tagList) {
-                if (nbt instanceof CompoundNBT) {
-                    CompoundNBT tagCompound = (CompoundNBT) nbt;
-                    String regName = tagCompound.getString("Name");
-                    if (regName.equals(traitId.toString())) {
-                        return true;
-                    }
-                }
-            }
-
-            return false;
+            return GearData.getView(gear).hasTrait(traitId);
         }
 
         return false;
     }
 
     public static int getHighestLevelEitherHand(PlayerEntity player, DataResource<ITrait> trait) {
-        return getHighestLevelEitherHand(player, trait.getId());
+        return EquipmentAggregate.get(player).getHighestLevelEitherHand(trait);
     }
 
     @Deprecated
@@ -200,13 +163,13 @@ public final class TraitHelper {
 
     public static int getHighestLevelCurio(LivingEntity entity, DataResource<ITrait> trait) {
         if (ModList.get().isLoaded(Const.CURIOS)) {
-            return CuriosCompat.getHighestTraitLevel(entity, trait);
+            return EquipmentAggregate.get(entity).getHighestLevelCurio(trait);
         }
         return 0;
     }
 
     public static boolean hasTraitEitherHand(PlayerEntity player, DataResource<ITrait> trait) {
-        return hasTraitEitherHand(player, trait.getId());
+        return getHighestLevelEitherHand(player, trait) > 0;
     }
 
     @Deprecated
@@ -220,17 +183,12 @@ public final class TraitHelper {
         if (!GearHelper.isGear(gear)) return ImmutableMap.of();
 
         Map<ITrait, Integer> result = new LinkedHashMap<>();
-        ListNBT tagList = GearData.getPropertiesData(gear).getList("Traits", Constants.NBT.TAG_COMPOUND);
-
-        for (INBT nbt : tagList) {
-            if (nbt instanceof CompoundNBT) {
-                CompoundNBT tagCompound = (CompoundNBT) nbt;
-                String name = tagCompound.getString("Name");
-                ITrait trait = TraitManager.get(name);
-                int level = tagCompound.getByte("Level");
-                if (trait != null && level > 0) {
-                    result.put(trait, level);
-                }
+        GearView view = GearData.getView(gear);
+
+        for (int i = 0; i < view.getTraitCount(); ++i) {
+            int level = view.getTraitLevel(i);
+            if (level > 0) {
+                result.put(view.getTrait(i), level);
             }
         }
 
@@ -253,7 +211,7 @@ public final class TraitHelper {
         Map<ITrait, Integer> result = new LinkedHashMap<>();
 
         for (PartData part : parts) {
-            for (TraitInstance inst : part.getTraits(gear)) {
+            for (TraitInstance inst : PartContributionCache.get(part, gear).getTraits()) {
                 if (inst.conditionsMatch(parts, gear)) {
                     ITrait trait = inst.getTrait();
                     // Get the highest value in any part
@@ -333,17 +291,10 @@ public final class TraitHelper {
     }
 
     static void tickTraits(World world, @Nullable PlayerEntity player, ItemStack gear, boolean isEquipped) {
-        ListNBT tagList = GearData.getPropertiesData(gear).getList("Traits", Constants.NBT.TAG_COMPOUND);
-
-        for (int i = 0; i < tagList.size(); ++i) {
-            CompoundNBT tagCompound = tagList.getCompound(i);
-            String regName = tagCompound.getString("Name");
-            ITrait trait = TraitManager.get(regName);
+        GearView view = GearData.getView(gear);
 
-            if (trait != null) {
-                int level = tagCompound.getByte("Level");
-                trait.onUpdate(new TraitActionContext(player, level, gear), isEquipped);
-            }
+        for (int i = 0; i < view.getTraitCount(); ++i) {
+            view.getTrait(i).onUpdate(new TraitActionContext(player, view.getTraitLevel(i), gear), isEquipped);
         }
     }
 }
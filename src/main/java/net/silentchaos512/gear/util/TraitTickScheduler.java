@@ -0,0 +1,184 @@
+package net.silentchaos512.gear.util;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.inventory.container.IContainerListener;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.silentchaos512.gear.SilentGear;
+import net.silentchaos512.gear.api.item.ICoreItem;
+import net.silentchaos512.gear.api.traits.ITrait;
+import net.silentchaos512.gear.api.traits.TraitActionContext;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Updates the traits of gear in players' inventories. Each player has a schedule with only the
+ * traits which actually do something on update. The schedule is rebuilt only when that player's
+ * inventory changes. Changes are counted by a listener on the player's containers (which sees any
+ * change to a slot's item, count or NBT) and by equipment change events, so an unchanged inventory
+ * costs nothing to check. Traits are updated at their own {@link ITrait#getUpdateInterval()
+ * interval}.
+ * <p>
+ * Gear in the selected hotbar slot and the armor slots counts as equipped. Gear which is not in a
+ * player's inventory (curios, for example) is still updated from {@link GearHelper}.
+ */
+@Mod.EventBusSubscriber(modid = SilentGear.MOD_ID)
+public final class TraitTickScheduler {
+    // Server thread only
+    private static final Map<UUID, Schedule> SCHEDULES = new HashMap<>();
+    private static volatile int generation = 0;
+
+    private TraitTickScheduler() {throw new IllegalAccessError("Utility class");}
+
+    /**
+     * Rebuilds every schedule on the next tick. Called when parts or traits are reloaded, since
+     * schedules hold references to trait objects.
+     */
+    public static void invalidateAll() {
+        ++generation;
+    }
+
+    @SubscribeEvent
+    public static void onPlayerTick(TickEvent.PlayerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END && !event.player.world.isRemote) {
+            SCHEDULES.computeIfAbsent(event.player.getUniqueID(), id -> new Schedule()).tick(event.player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onContainerOpen(PlayerContainerEvent.Open event) {
+        // Player inventory slots in other containers are only checked for changes while open
+        Schedule schedule = SCHEDULES.get(event.getPlayer().getUniqueID());
+        if (schedule != null && !event.getPlayer().world.isRemote) {
+            event.getContainer().addListener(schedule);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        if (event.getEntityLiving() instanceof PlayerEntity && !event.getEntityLiving().world.isRemote) {
+            Schedule schedule = SCHEDULES.get(event.getEntityLiving().getUniqueID());
+            if (schedule != null) {
+                schedule.markChanged();
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        SCHEDULES.remove(event.getPlayer().getUniqueID());
+    }
+
+    private static final class Schedule implements IContainerListener {
+        @Nullable private PlayerEntity player;
+        private int selectedSlot = -1;
+        private int scheduleGeneration;
+        private int changeCount;
+        private int builtChangeCount = -1;
+        private final List<Entry> entries = new ArrayList<>();
+        private int ticks;
+
+        private void tick(PlayerEntity player) {
+            if (hasChanged(player)) {
+                rebuild(player);
+            }
+
+            ++this.ticks;
+            for (Entry entry : this.entries) {
+                if (this.ticks % entry.interval == 0 && !entry.context.getGear().isEmpty()) {
+                    entry.trait.onUpdate(entry.context, entry.equipped);
+                }
+            }
+        }
+
+        private boolean hasChanged(PlayerEntity player) {
+            return player != this.player
+                    || player.inventory.currentItem != this.selectedSlot
+                    || this.changeCount != this.builtChangeCount
+                    || this.scheduleGeneration != generation;
+        }
+
+        private void markChanged() {
+            ++this.changeCount;
+        }
+
+        private void rebuild(PlayerEntity player) {
+            if (player != this.player) {
+                // Respawning creates a new player entity with its own container
+                player.container.addListener(this);
+            }
+
+            PlayerInventory inventory = player.inventory;
+            this.player = player;
+            this.selectedSlot = inventory.currentItem;
+            this.scheduleGeneration = generation;
+            this.builtChangeCount = this.changeCount;
+            this.entries.clear();
+
+            for (List<ItemStack> list : getSlotLists(inventory)) {
+                for (int i = 0; i < list.size(); ++i) {
+                    ItemStack stack = list.get(i);
+                    if (stack.getItem() instanceof ICoreItem) {
+                        boolean equipped = list == inventory.armorInventory || (list == inventory.mainInventory && i == inventory.currentItem);
+                        addEntries(player, stack, equipped);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void sendAllContents(Container container, NonNullList<ItemStack> items) {
+            markChanged();
+        }
+
+        @Override
+        public void sendSlotContents(Container container, int slotIndex, ItemStack stack) {
+            if (this.player != null && container.getSlot(slotIndex).inventory == this.player.inventory) {
+                markChanged();
+            }
+        }
+
+        @Override
+        public void sendWindowProperty(Container container, int varToUpdate, int newValue) {
+        }
+
+        private void addEntries(PlayerEntity player, ItemStack stack, boolean equipped) {
+            GearView view = GearData.getView(stack);
+            for (int i = 0; i < view.getTraitCount(); ++i) {
+                ITrait trait = view.getTrait(i);
+                int interval = trait.getUpdateInterval();
+                if (interval > 0) {
+                    TraitActionContext context = new TraitActionContext(player, view.getTraitLevel(i), stack);
+                    this.entries.add(new Entry(trait, context, equipped, interval));
+                }
+            }
+        }
+
+        private static List<List<ItemStack>> getSlotLists(PlayerInventory inventory) {
+            return Arrays.asList(inventory.mainInventory, inventory.armorInventory, inventory.offHandInventory);
+        }
+    }
+
+    private static final class Entry {
+        private final ITrait trait;
+        private final TraitActionContext context;
+        private final boolean equipped;
+        private final int interval;
+
+        private Entry(ITrait trait, TraitActionContext context, boolean equipped, int interval) {
+            this.trait = trait;
+            this.context = context;
+            this.equipped = equipped;
+            this.interval = interval;
+        }
+    }
+}